@@ -1,5 +1,7 @@
 package com.example.auth;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -17,6 +19,7 @@ import com.example.auth.model.Role;
 import com.example.auth.model.User;
 import com.example.auth.repository.RoleRepository;
 import com.example.auth.repository.UserRepository;
+import com.example.auth.service.PasswordHashingSaturatedException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import java.util.HashSet;
 import java.util.Set;
@@ -25,6 +28,8 @@ import java.util.Set;
 @RequestMapping("/auth")
 public class AuthController {
 
+    private static final Logger log = LoggerFactory.getLogger(AuthController.class);
+
     private final AuthenticationManager authenticationManager;
     private final JwtUtil jwtUtil;
     private final RsaUtil rsaUtil;
@@ -83,8 +88,10 @@ public class AuthController {
             redisTemplate.opsForValue().set("token:" + user.getUsername(), token, 24, TimeUnit.HOURS);
 
             return ResponseEntity.ok(Map.of("token", token, "roles", roles));
+        } catch (PasswordHashingSaturatedException e) {
+            throw e; // 503, see PasswordHashingExceptionHandler
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Quick login failed", e);
             return ResponseEntity.status(500).body("Error processing quick login");
         }
     }
@@ -124,8 +131,10 @@ public class AuthController {
 
         } catch (org.springframework.security.core.AuthenticationException e) {
             return ResponseEntity.status(401).body("Invalid credentials");
+        } catch (PasswordHashingSaturatedException e) {
+            throw e; // 503, see PasswordHashingExceptionHandler
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Login failed", e);
             return ResponseEntity.status(500).body("Error processing login");
         }
     }
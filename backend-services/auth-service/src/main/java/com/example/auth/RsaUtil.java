@@ -1,5 +1,7 @@
 package com.example.auth;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
@@ -7,16 +9,25 @@ import org.springframework.util.FileCopyUtils;
 
 import javax.crypto.Cipher;
 import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.security.KeyFactory;
 import java.security.PrivateKey;
 import java.security.spec.PKCS8EncodedKeySpec;
 import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 @Component
 public class RsaUtil {
 
+    private static final Logger log = LoggerFactory.getLogger(RsaUtil.class);
+    private static final String TRANSFORMATION = "RSA/ECB/PKCS1Padding";
+
     private final PrivateKey privateKey;
     private final String publicKey;
+    // Initialised ciphers ready for reuse; pooled rather than per thread so virtual threads share them too
+    private final BlockingQueue<Cipher> idleCiphers =
+            new ArrayBlockingQueue<>(Runtime.getRuntime().availableProcessors() * 2);
 
     public RsaUtil(@Value("${app.rsa.private-key-path}") Resource privateKeyResource,
             @Value("${app.rsa.public-key-path}") Resource publicKeyResource) throws Exception {
@@ -46,22 +57,33 @@ public class RsaUtil {
     }
 
     public String decrypt(String encryptedText) throws Exception {
-        System.out.println(
-                "RsaUtil.decrypt called. Input length: " + (encryptedText != null ? encryptedText.length() : "null"));
+        // JSEncrypt produces standard Base64, so use the standard decoder
+        byte[] decoded = Base64.getDecoder().decode(encryptedText);
+        Cipher cipher = idleCiphers.poll();
+        if (cipher == null) {
+            cipher = newCipher();
+        }
+        byte[] decrypted;
         try {
-            Cipher cipher = Cipher.getInstance("RSA/ECB/PKCS1Padding");
-            cipher.init(Cipher.DECRYPT_MODE, privateKey);
-
-            // JSEncrypt produces standard Base64, so use the standard decoder
-            byte[] decoded = Base64.getDecoder().decode(encryptedText);
-            byte[] decrypted = cipher.doFinal(decoded);
-
-            return new String(decrypted, StandardCharsets.UTF_8);
-        } catch (Exception e) {
-            System.out.println(
-                    "Decryption failed. Exception: " + e.getClass().getName() + ", Message: " + e.getMessage());
-            e.printStackTrace();
+            decrypted = cipher.doFinal(decoded);
+        } catch (GeneralSecurityException e) {
+            // Not returned to the pool: a fresh cipher costs less than doubting this one
+            log.debug("Password decryption failed: {}", e.getMessage());
             throw e;
         }
+        // doFinal leaves the cipher initialised for the next decryption
+        idleCiphers.offer(cipher);
+        return new String(decrypted, StandardCharsets.UTF_8);
+    }
+
+    /** Ciphers currently waiting in the pool. */
+    int pooledCiphers() {
+        return idleCiphers.size();
+    }
+
+    private Cipher newCipher() throws GeneralSecurityException {
+        Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+        cipher.init(Cipher.DECRYPT_MODE, privateKey);
+        return cipher;
     }
 }
@@ -0,0 +1,20 @@
+package com.example.auth.service;
+
+/**
+ * Every password-hashing worker is busy and the queue is full (or the wait
+ * ran out): the login is refused straight away so the caller can back off,
+ * instead of piling more BCrypt work onto saturated cores.
+ */
+public class PasswordHashingSaturatedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public PasswordHashingSaturatedException(long retryAfterSeconds) {
+        super("Password verification is busy, please retry");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
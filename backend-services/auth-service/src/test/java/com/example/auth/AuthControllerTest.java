@@ -0,0 +1,61 @@
+package com.example.auth;
+
+import com.example.auth.repository.RoleRepository;
+import com.example.auth.repository.UserRepository;
+import com.example.auth.service.PasswordHashingSaturatedException;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class AuthControllerTest {
+
+        private final AuthenticationManager authenticationManager = mock(AuthenticationManager.class);
+        private final RsaUtil rsaUtil = mock(RsaUtil.class);
+        private final UserRepository userRepository = mock(UserRepository.class);
+        private final PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+
+        private final MockMvc mockMvc = MockMvcBuilders
+                        .standaloneSetup(new AuthController(authenticationManager, mock(JwtUtil.class), rsaUtil,
+                                        mock(StringRedisTemplate.class), userRepository, mock(RoleRepository.class),
+                                        passwordEncoder))
+                        .setControllerAdvice(new PasswordHashingExceptionHandler())
+                        .build();
+
+        @Test
+        public void testSaturatedLoginAnswers503WithRetryAfter() throws Exception {
+                when(rsaUtil.decrypt(anyString())).thenReturn("secret");
+                when(authenticationManager.authenticate(any())).thenThrow(new PasswordHashingSaturatedException(2));
+
+                mockMvc.perform(post("/auth/login")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"username\":\"alice\",\"password\":\"encrypted\"}"))
+                                .andExpect(status().isServiceUnavailable())
+                                .andExpect(header().string("Retry-After", "2"));
+        }
+
+        @Test
+        public void testSaturatedRegistrationAnswers503WithRetryAfter() throws Exception {
+                when(userRepository.findByUsername("0912345678")).thenReturn(Optional.empty());
+                when(passwordEncoder.encode(any())).thenThrow(new PasswordHashingSaturatedException(3));
+
+                mockMvc.perform(post("/auth/quick-login")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"phone\":\"0912345678\"}"))
+                                .andExpect(status().isServiceUnavailable())
+                                .andExpect(header().string("Retry-After", "3"));
+        }
+}
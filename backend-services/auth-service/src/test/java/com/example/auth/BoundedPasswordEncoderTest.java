@@ -0,0 +1,179 @@
+package com.example.auth;
+
+import com.example.auth.service.BoundedPasswordEncoder;
+import com.example.auth.service.PasswordHashingSaturatedException;
+import com.example.auth.service.RehashOnLoginAuthenticationProvider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class BoundedPasswordEncoderTest {
+
+        private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        private final BlockingEncoder delegate = new BlockingEncoder();
+        private final ExecutorService callers = Executors.newCachedThreadPool();
+        private BoundedPasswordEncoder encoder;
+
+        @AfterEach
+        public void shutDown() {
+                delegate.release.countDown();
+                callers.shutdownNow();
+                if (encoder != null) {
+                        encoder.destroy();
+                }
+        }
+
+        @Test
+        public void testFullQueueIsRejectedImmediately() throws Exception {
+                encoder = new BoundedPasswordEncoder(delegate, 1, 1, 10_000, 7, meterRegistry);
+                Future<Boolean> running = callers.submit(() -> encoder.matches("block", "hash:block"));
+                await(() -> gauge("auth.password.active") == 1);
+                Future<Boolean> queued = callers.submit(() -> encoder.matches("queued", "hash:queued"));
+                await(() -> gauge("auth.password.queue.depth") == 1);
+
+                PasswordHashingSaturatedException e = assertThrows(PasswordHashingSaturatedException.class,
+                                () -> encoder.matches("rejected", "hash:rejected"));
+                assertEquals(7, e.getRetryAfterSeconds());
+                assertEquals(1, meterRegistry.counter("auth.password.rejected").count());
+
+                delegate.release.countDown();
+                assertTrue(running.get(5, TimeUnit.SECONDS));
+                assertTrue(queued.get(5, TimeUnit.SECONDS));
+                assertFalse(delegate.checked.contains("rejected"));
+        }
+
+        @Test
+        public void testTimedOutWorkIsRemovedFromQueue() throws Exception {
+                encoder = new BoundedPasswordEncoder(delegate, 1, 4, 200, 1, meterRegistry);
+                callers.submit(() -> encoder.matches("block", "hash:block"));
+                await(() -> gauge("auth.password.active") == 1);
+
+                assertThrows(PasswordHashingSaturatedException.class,
+                                () -> encoder.matches("queued", "hash:queued"));
+                assertEquals(0, gauge("auth.password.queue.depth"));
+
+                // The worker frees up: only work submitted afterwards reaches the delegate
+                delegate.release.countDown();
+                assertTrue(encoder.matches("after", "hash:after"));
+                assertEquals(List.of("block", "after"), delegate.checked);
+        }
+
+        @Test
+        public void testOutdatedHashIsUpgradedOnLogin() {
+                PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+                when(passwordEncoder.matches("secret", "old")).thenReturn(true);
+                when(passwordEncoder.upgradeEncoding("old")).thenReturn(true);
+                when(passwordEncoder.encode("secret")).thenReturn("new");
+                UserDetailsPasswordService passwordService = mock(UserDetailsPasswordService.class);
+                when(passwordService.updatePassword(any(), anyString()))
+                                .thenAnswer(invocation -> User.withUserDetails(invocation.getArgument(0))
+                                                .password(invocation.getArgument(1))
+                                                .build());
+
+                Authentication auth = provider(passwordEncoder, passwordService)
+                                .authenticate(new UsernamePasswordAuthenticationToken("alice", "secret"));
+
+                assertTrue(auth.isAuthenticated());
+                verify(passwordService).updatePassword(any(), eq("new"));
+        }
+
+        @Test
+        public void testSaturatedUpgradeStillLogsIn() {
+                PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+                when(passwordEncoder.matches("secret", "old")).thenReturn(true);
+                when(passwordEncoder.upgradeEncoding("old")).thenReturn(true);
+                when(passwordEncoder.encode("secret")).thenThrow(new PasswordHashingSaturatedException(1));
+                UserDetailsPasswordService passwordService = mock(UserDetailsPasswordService.class);
+
+                Authentication auth = provider(passwordEncoder, passwordService)
+                                .authenticate(new UsernamePasswordAuthenticationToken("alice", "secret"));
+
+                assertTrue(auth.isAuthenticated());
+                assertEquals("alice", auth.getName());
+                assertEquals("ROLE_USER", auth.getAuthorities().iterator().next().getAuthority());
+                verify(passwordService, never()).updatePassword(any(), anyString());
+        }
+
+        private static RehashOnLoginAuthenticationProvider provider(PasswordEncoder passwordEncoder,
+                        UserDetailsPasswordService passwordService) {
+                UserDetails alice = User.withUsername("alice").password("old").roles("USER").build();
+                UserDetailsService userDetailsService = mock(UserDetailsService.class);
+                when(userDetailsService.loadUserByUsername("alice")).thenReturn(alice);
+
+                RehashOnLoginAuthenticationProvider provider = new RehashOnLoginAuthenticationProvider();
+                provider.setUserDetailsService(userDetailsService);
+                provider.setPasswordEncoder(passwordEncoder);
+                provider.setUserDetailsPasswordService(passwordService);
+                return provider;
+        }
+
+        private double gauge(String name) {
+                return meterRegistry.get(name).gauge().value();
+        }
+
+        private static void await(BooleanSupplier condition) throws InterruptedException {
+                long deadline = System.currentTimeMillis() + 5_000;
+                while (!condition.getAsBoolean()) {
+                        if (System.currentTimeMillis() > deadline) {
+                                throw new AssertionError("Condition not met within 5s");
+                        }
+                        Thread.sleep(10);
+                }
+        }
+
+        /** Holds the worker on "block" until released, ignoring the interrupt a timed-out caller sends. */
+        private static class BlockingEncoder implements PasswordEncoder {
+
+                final CountDownLatch release = new CountDownLatch(1);
+                final List<String> checked = new CopyOnWriteArrayList<>();
+
+                @Override
+                public String encode(CharSequence rawPassword) {
+                        return "hash:" + rawPassword;
+                }
+
+                @Override
+                public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                        checked.add(rawPassword.toString());
+                        if ("block".contentEquals(rawPassword)) {
+                                boolean released = false;
+                                while (!released) {
+                                        try {
+                                                released = release.await(10, TimeUnit.SECONDS);
+                                        } catch (InterruptedException ignored) {
+                                                // Keep the worker busy, as a running BCrypt round would
+                                        }
+                                }
+                        }
+                        return encodedPassword.equals(encode(rawPassword));
+                }
+        }
+}
@@ -0,0 +1,66 @@
+package com.example.auth;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+
+import javax.crypto.Cipher;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class RsaUtilTest {
+
+        private KeyPair keys;
+        private RsaUtil rsaUtil;
+
+        @BeforeEach
+        public void setUp() throws Exception {
+                KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+                generator.initialize(2048);
+                keys = generator.generateKeyPair();
+                rsaUtil = new RsaUtil(pem("PRIVATE KEY", keys.getPrivate().getEncoded()),
+                                pem("PUBLIC KEY", keys.getPublic().getEncoded()));
+        }
+
+        @Test
+        public void testCipherIsReusedAcrossDecryptions() throws Exception {
+                assertEquals("first", rsaUtil.decrypt(encrypt("first")));
+                assertEquals("second", rsaUtil.decrypt(encrypt("second")));
+
+                // A second cipher would have been pooled too if the first had not been reused
+                assertEquals(1, rsaUtil.pooledCiphers());
+        }
+
+        @Test
+        public void testCipherIsDroppedAfterFailedDecryption() throws Exception {
+                rsaUtil.decrypt(encrypt("warm up"));
+                assertEquals(1, rsaUtil.pooledCiphers());
+
+                // Longer than the 2048-bit modulus: doFinal refuses it
+                String tooLong = Base64.getEncoder().encodeToString(new byte[300]);
+                assertThrows(GeneralSecurityException.class, () -> rsaUtil.decrypt(tooLong));
+                assertEquals(0, rsaUtil.pooledCiphers());
+
+                assertEquals("again", rsaUtil.decrypt(encrypt("again")));
+                assertEquals(1, rsaUtil.pooledCiphers());
+        }
+
+        // What the login page sends: the password encrypted with the published key (JSEncrypt)
+        private String encrypt(String password) throws Exception {
+                Cipher cipher = Cipher.getInstance("RSA/ECB/PKCS1Padding");
+                cipher.init(Cipher.ENCRYPT_MODE, keys.getPublic());
+                return Base64.getEncoder().encodeToString(cipher.doFinal(password.getBytes(StandardCharsets.UTF_8)));
+        }
+
+        static ByteArrayResource pem(String type, byte[] der) {
+                String body = Base64.getMimeEncoder(64, "\n".getBytes(StandardCharsets.US_ASCII)).encodeToString(der);
+                String pem = "-----BEGIN " + type + "-----\n" + body + "\n-----END " + type + "-----\n";
+                return new ByteArrayResource(pem.getBytes(StandardCharsets.US_ASCII));
+        }
+}
@@ -0,0 +1,96 @@
+package com.example.benchmarks;
+
+import com.example.order.security.JwtAuthenticationFilter;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of bearer authentication in order-service, for a token
+ * that repeats like a polling client's.
+ *
+ * {@code rebuildAndVerify} is the old per-request work (new key and
+ * parser, full signature check); {@code filter} is
+ * {@link JwtAuthenticationFilter} as it is now, on one thread and on
+ * eight sharing its token cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationBenchmark {
+
+    private static final String SECRET = "very-long-test-secret-key-for-jwt-signing-and-verification-purposes-1234567890";
+
+    private String token;
+    private JwtAuthenticationFilter filter;
+
+    @Setup
+    public void setUp() {
+        token = Jwts.builder()
+                .subject("0912345678")
+                .claim("roles", List.of("USER"))
+                .expiration(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+        filter = new JwtAuthenticationFilter(SECRET, 300, 10_000, false, new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    public Claims rebuildAndVerify() {
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+
+    @Benchmark
+    public Authentication filter(Request request) throws Exception {
+        SecurityContextHolder.clearContext();
+        filter.doFilter(request.request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Authentication filterConcurrent(Request request) throws Exception {
+        return filter(request);
+    }
+
+    /** One request per thread: the filter marks it as filtered while it runs. */
+    @State(Scope.Thread)
+    public static class Request {
+        MockHttpServletRequest request;
+
+        @Setup
+        public void setUp(JwtAuthenticationBenchmark benchmark) {
+            request = new MockHttpServletRequest("GET", "/orders/my");
+            request.addHeader("Authorization", "Bearer " + benchmark.token);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.benchmarks;
+
+import com.example.auth.JwtUtil;
+import com.example.auth.RsaUtil;
+import com.example.auth.service.BoundedPasswordEncoder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import javax.crypto.Cipher;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Auth cost per login: password decryption, token signing, and the
+ * CPU-bound part of /auth/login (decrypt, BCrypt check, sign; no database
+ * or Redis), with a throwaway 2048-bit key.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoginBenchmark {
+
+    private static final String SECRET = "very-long-test-secret-key-for-jwt-signing-and-verification-purposes-1234567890";
+    private static final String PASSWORD = "correct horse battery staple";
+    private static final String USERNAME = "0912345678";
+    private static final List<String> ROLES = List.of("ROLE_USER");
+
+    private RsaUtil rsaUtil;
+    private JwtUtil jwtUtil;
+    private BoundedPasswordEncoder passwordEncoder;
+    private String encrypted;
+    private String stored;
+
+    @Setup
+    public void setUp() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair keys = generator.generateKeyPair();
+        rsaUtil = new RsaUtil(pem("PRIVATE KEY", keys.getPrivate().getEncoded()),
+                pem("PUBLIC KEY", keys.getPublic().getEncoded()));
+        jwtUtil = new JwtUtil(SECRET, 86_400_000);
+        passwordEncoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(10), 1, 64, 30_000, 1,
+                new SimpleMeterRegistry());
+
+        // What the login page sends: the password encrypted with the published key (JSEncrypt)
+        Cipher encrypt = Cipher.getInstance("RSA/ECB/PKCS1Padding");
+        encrypt.init(Cipher.ENCRYPT_MODE, keys.getPublic());
+        encrypted = Base64.getEncoder().encodeToString(encrypt.doFinal(PASSWORD.getBytes(StandardCharsets.UTF_8)));
+        stored = passwordEncoder.encode(PASSWORD);
+    }
+
+    @TearDown
+    public void tearDown() {
+        passwordEncoder.destroy();
+    }
+
+    @Benchmark
+    public String decrypt() throws Exception {
+        return rsaUtil.decrypt(encrypted);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(USERNAME, ROLES);
+    }
+
+    @Benchmark
+    public String login() throws Exception {
+        String password = rsaUtil.decrypt(encrypted);
+        if (!passwordEncoder.matches(password, stored)) {
+            throw new IllegalStateException("Password did not match");
+        }
+        return jwtUtil.generateToken(USERNAME, ROLES);
+    }
+
+    private static ByteArrayResource pem(String type, byte[] der) {
+        String body = Base64.getMimeEncoder(64, "\n".getBytes(StandardCharsets.US_ASCII)).encodeToString(der);
+        String pem = "-----BEGIN " + type + "-----\n" + body + "\n-----END " + type + "-----\n";
+        return new ByteArrayResource(pem.getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.benchmarks;
+
+import com.example.order.service.OrderFacts;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * /orders/analytics/slice: the in-memory columns against the same GROUP BY
+ * in MySQL, for an hour x order type x payment method breakdown of the last
+ * 90 days. Seeds {@code orders} rows spread over the last year first.
+ *
+ * The SQL side only sums order totals (no item join), so it does strictly
+ * less work than the in-memory query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class OrderFactsBenchmark {
+
+    private static final int BATCH_SIZE = 5_000;
+    // Well above anything the id generator hands out during the run
+    private static final long FIRST_ID = 1_000_000_000L;
+
+    private static final String[] STATUSES = { "PENDING", "PREPARING", "READY", "COMPLETED", "CANCELLED" };
+    private static final String[] ORDER_TYPES = { "DINE_IN", "TAKEOUT" };
+    private static final String[] PAYMENT_METHODS = { "CASH", "CREDIT_CARD", "MOBILE_PAY" };
+
+    private static final String SQL = "SELECT HOUR(created_at), order_type, payment_method, COUNT(*), "
+            + "SUM(total_price) FROM orders WHERE created_at >= ? "
+            + "GROUP BY HOUR(created_at), order_type, payment_method";
+
+    @Param("1000000")
+    public int orders;
+
+    private ConfigurableApplicationContext context;
+    private OrderFacts orderFacts;
+    private JdbcTemplate jdbcTemplate;
+    private Instant from;
+    private OrderFacts.Slice slice;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = OrderServiceContext.start();
+        orderFacts = context.getBean(OrderFacts.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        seed();
+        orderFacts.reload();
+
+        from = Instant.now().minus(90, ChronoUnit.DAYS);
+        slice = new OrderFacts.Slice(List.of(OrderFacts.Dimension.HOUR, OrderFacts.Dimension.ORDER_TYPE,
+                OrderFacts.Dimension.PAYMENT_METHOD), from, null, Map.of());
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<OrderFacts.Group> columns() {
+        return orderFacts.query(slice);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> sql() {
+        return jdbcTemplate.queryForList(SQL, Timestamp.from(from));
+    }
+
+    private void seed() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long now = Instant.now().toEpochMilli();
+        long year = ChronoUnit.DAYS.getDuration().toMillis() * 365;
+        for (int start = 0; start < orders; start += BATCH_SIZE) {
+            List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+            for (int i = start; i < Math.min(orders, start + BATCH_SIZE); i++) {
+                batch.add(new Object[] {
+                        FIRST_ID + i,
+                        "bench-" + random.nextInt(10_000),
+                        BigDecimal.valueOf(random.nextInt(100, 20_000), 2),
+                        STATUSES[random.nextInt(STATUSES.length)],
+                        ORDER_TYPES[random.nextInt(ORDER_TYPES.length)],
+                        PAYMENT_METHODS[random.nextInt(PAYMENT_METHODS.length)],
+                        "PAID",
+                        "T" + random.nextInt(1, 31),
+                        new Timestamp(now - random.nextLong(year)) });
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO orders (id, user_id, total_price, status, order_type, "
+                    + "payment_method, payment_status, table_number, created_at, version) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0)", batch);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.benchmarks;
+
+import com.example.order.dto.CreateOrderRequest;
+import com.example.order.dto.OrderItemRequest;
+import com.example.order.entity.Menu;
+import com.example.order.entity.Order;
+import com.example.order.repository.MenuRepository;
+import com.example.order.service.OrderService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Insert latency of a large order through {@link OrderService#createOrder}.
+ *
+ * Next to the time per order, JMH reports the {@code orders} and
+ * {@code statements} counters of the measured iterations; their ratio is
+ * the number of JDBC statements one order costs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class OrderInsertBenchmark {
+
+    @Param("100")
+    public int itemsPerOrder;
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private Statistics statistics;
+    private CreateOrderRequest request;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = OrderServiceContext.start("spring.jpa.properties.hibernate.generate_statistics=true");
+        orderService = context.getBean(OrderService.class);
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+
+        Menu menu = new Menu();
+        menu.setName("Bench Dumpling");
+        menu.setPrice(new BigDecimal("1.25"));
+        Long menuId = context.getBean(MenuRepository.class).save(menu).getId();
+
+        List<OrderItemRequest> items = new ArrayList<>();
+        for (int i = 0; i < itemsPerOrder; i++) {
+            OrderItemRequest item = new OrderItemRequest();
+            item.setMenuId(menuId);
+            item.setQuantity(1);
+            items.add(item);
+        }
+        request = new CreateOrderRequest();
+        request.setItems(items);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public Order createOrder(Counters counters) {
+        long before = statistics.getPrepareStatementCount();
+        Order order = orderService.createOrder("bench", request);
+        counters.statements += statistics.getPrepareStatementCount() - before;
+        counters.orders++;
+        return order;
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+        public long orders;
+        public long statements;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            orders = 0;
+            statements = 0;
+        }
+    }
+}
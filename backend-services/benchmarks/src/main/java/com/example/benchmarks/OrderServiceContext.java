@@ -0,0 +1,24 @@
+package com.example.benchmarks;
+
+import com.example.order.OrderApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Arrays;
+
+/**
+ * Starts order-service in the benchmark JVM, against the MySQL configured
+ * in config/application.yml. Start it from a {@code @Setup(Level.Trial)}
+ * method and close it in the matching {@code @TearDown}.
+ */
+final class OrderServiceContext {
+
+    private OrderServiceContext() {
+    }
+
+    /** @param properties key=value pairs that override every configuration file */
+    static ConfigurableApplicationContext start(String... properties) {
+        String[] args = Arrays.stream(properties).map(property -> "--" + property).toArray(String[]::new);
+        return new SpringApplicationBuilder(OrderApplication.class).run(args);
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.benchmarks;
+
+import com.example.order.dto.CreateOrderRequest;
+import com.example.order.dto.OrderItemRequest;
+import com.example.order.entity.Menu;
+import com.example.order.entity.Order;
+import com.example.order.repository.MenuRepository;
+import com.example.order.service.OrderService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Orders per second that concurrent callers get through
+ * {@link OrderService#createOrder}, all in the same hour, day, order type and
+ * payment status: every write lands in the same analytics buckets, so any
+ * row the write path shares between orders shows up as lost throughput.
+ *
+ * Eight threads stay within the default connection pool, next to the outbox
+ * relay and the rollup fold, which run on their default schedules. Compare
+ * the score with the same run on a build before a change to the write path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(8)
+@Fork(1)
+public class OrderWriteThroughputBenchmark {
+
+    @Param({ "direct", "group-commit" })
+    public String intakeMode;
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private CreateOrderRequest request;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = OrderServiceContext.start("app.order-intake.mode=" + intakeMode);
+        orderService = context.getBean(OrderService.class);
+
+        Menu menu = new Menu();
+        menu.setName("Bench Noodles");
+        menu.setPrice(new BigDecimal("8.50"));
+        Long menuId = context.getBean(MenuRepository.class).save(menu).getId();
+
+        OrderItemRequest item = new OrderItemRequest();
+        item.setMenuId(menuId);
+        item.setQuantity(2);
+        request = new CreateOrderRequest();
+        request.setItems(List.of(item));
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public Order createOrder() {
+        return orderService.createOrder("bench", request);
+    }
+}
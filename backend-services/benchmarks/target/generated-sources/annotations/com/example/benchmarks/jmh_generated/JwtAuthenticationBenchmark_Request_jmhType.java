@@ -0,0 +1,4 @@
+package com.example.benchmarks.jmh_generated;
+public class JwtAuthenticationBenchmark_Request_jmhType extends JwtAuthenticationBenchmark_Request_jmhType_B3 {
+}
+
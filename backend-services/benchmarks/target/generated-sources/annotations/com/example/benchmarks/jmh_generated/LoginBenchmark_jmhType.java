@@ -0,0 +1,4 @@
+package com.example.benchmarks.jmh_generated;
+public class LoginBenchmark_jmhType extends LoginBenchmark_jmhType_B3 {
+}
+
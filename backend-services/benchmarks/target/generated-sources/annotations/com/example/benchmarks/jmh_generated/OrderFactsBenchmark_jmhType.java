@@ -0,0 +1,4 @@
+package com.example.benchmarks.jmh_generated;
+public class OrderFactsBenchmark_jmhType extends OrderFactsBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package com.example.benchmarks.jmh_generated;
+public class OrderInsertBenchmark_Counters_jmhType extends OrderInsertBenchmark_Counters_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package com.example.benchmarks.jmh_generated;
+public class OrderWriteThroughputBenchmark_jmhType extends OrderWriteThroughputBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,64 @@
+package com.example.common.virtualthreads;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+
+/**
+ * Reports virtual threads that stay pinned to their carrier (typically a
+ * blocking call inside a {@code synchronized} block) for longer than
+ * {@code app.virtual-threads.pinned-threshold-ms}. Each event is counted in
+ * {@code jvm.threads.virtual.pinned} and logged with its top frames.
+ *
+ * Registered by {@link VirtualThreadsAutoConfiguration}.
+ */
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 5;
+
+    private final RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry, long thresholdMs) {
+        Counter pinned = Counter.builder("jvm.threads.virtual.pinned")
+                .description("Virtual threads pinned longer than the configured threshold")
+                .register(meterRegistry);
+
+        this.stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(Duration.ofMillis(thresholdMs)).withStackTrace();
+        stream.onEvent(PINNED_EVENT, event -> {
+            pinned.increment();
+            log.warn("Virtual thread pinned for {} ms:{}", event.getDuration().toMillis(), topFrames(event));
+        });
+        stream.startAsync();
+    }
+
+    // Called on context shutdown (inferred destroy method of the @Bean)
+    public void close() {
+        stream.close();
+    }
+
+    private static String topFrames(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return " <no stack>";
+        }
+        StringBuilder frames = new StringBuilder();
+        int count = 0;
+        for (RecordedFrame frame : event.getStackTrace().getFrames()) {
+            if (count++ == LOGGED_FRAMES) {
+                break;
+            }
+            frames.append("\n    at ").append(frame.getMethod().getType().getName())
+                    .append('.').append(frame.getMethod().getName())
+                    .append(':').append(frame.getLineNumber());
+        }
+        return frames.toString();
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.gateway.filter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Verifies the bearer JWT once at the edge and tells the services who the
+ * caller is.
+ *
+ * Whatever the client sent as {@value #USER_ID} or {@value #USER_ROLES} is
+ * dropped on every route; for a valid token they are set from its subject
+ * and roles (comma-separated, ROLE_ prefixed). Requests without a valid
+ * token are forwarded anonymously and the service decides. Browsers cannot
+ * set headers on a WebSocket handshake, so upgrades may pass the token as
+ * {@code ?access_token=}.
+ *
+ * Verified tokens are remembered until they expire or
+ * {@code app.jwt.cache.ttl-seconds} passes, so polling clients cost a map
+ * lookup, not a signature check. The lookup takes no lock: it runs on the
+ * Netty event loop, where waiting on another request would stall every
+ * connection the loop serves.
+ */
+@Component
+public class JwtIdentityFilter implements GlobalFilter, Ordered {
+
+    public static final String USER_ID = "X-User-Id";
+    public static final String USER_ROLES = "X-User-Roles";
+
+    private static final String BEARER = "Bearer ";
+
+    private final JwtParser parser;
+    private final long ttlMs;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter rejected;
+
+    // Keyed by the token itself: it is in memory for the request anyway, and a digest would allocate
+    private final Cache<String, Identity> verified;
+
+    public JwtIdentityFilter(@Value("${app.jwt.secret}") String jwtSecret,
+            @Value("${app.jwt.cache.ttl-seconds:300}") long ttlSeconds,
+            @Value("${app.jwt.cache.max-entries:10000}") int maxEntries,
+            MeterRegistry meterRegistry) {
+        this.parser = Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8)))
+                .build();
+        this.ttlMs = ttlSeconds * 1000;
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfter(new UntilExpiresAt())
+                .build();
+        this.hits = Counter.builder("gateway.jwt").tag("result", "cached").register(meterRegistry);
+        this.misses = Counter.builder("gateway.jwt").tag("result", "verified").register(meterRegistry);
+        this.rejected = Counter.builder("gateway.jwt").tag("result", "invalid").register(meterRegistry);
+    }
+
+    @Override
+    public int getOrder() {
+        // Before any route filter can read the identity headers
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        HttpHeaders headers = request.getHeaders();
+        String token = token(request);
+        Identity identity = token != null ? verify(token) : null;
+
+        if (identity == null && !headers.containsKey(USER_ID) && !headers.containsKey(USER_ROLES)) {
+            // Anonymous and nothing to strip: forward the request as is
+            return chain.filter(exchange);
+        }
+        ServerHttpRequest forwarded = request.mutate()
+                .headers(h -> {
+                    h.remove(USER_ID);
+                    h.remove(USER_ROLES);
+                    if (identity != null) {
+                        h.set(USER_ID, identity.userId());
+                        if (identity.roles() != null) {
+                            h.set(USER_ROLES, identity.roles());
+                        }
+                    }
+                })
+                .build();
+        return chain.filter(exchange.mutate().request(forwarded).build());
+    }
+
+    private static String token(ServerHttpRequest request) {
+        String authorization = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (authorization != null && authorization.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            return authorization.substring(BEARER.length()).trim();
+        }
+        if ("websocket".equalsIgnoreCase(request.getHeaders().getUpgrade())) {
+            return request.getQueryParams().getFirst("access_token");
+        }
+        return null;
+    }
+
+    /** The caller named by a valid token; null when it is invalid or names no user. */
+    Identity verify(String token) {
+        Identity cached = verified.getIfPresent(token);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        Claims claims;
+        try {
+            claims = parser.parseSignedClaims(token).getPayload();
+        } catch (JwtException | IllegalArgumentException e) {
+            rejected.increment();
+            return null;
+        }
+        misses.increment();
+        String subject = claims.getSubject();
+        if (subject == null || subject.isBlank()) {
+            return null;
+        }
+        List<?> roles = claims.get("roles", List.class);
+        String roleHeader = roles == null ? null : roles.stream()
+                .map(String::valueOf)
+                .map(role -> role.startsWith("ROLE_") ? role : "ROLE_" + role)
+                .collect(Collectors.joining(","));
+
+        long now = System.currentTimeMillis();
+        Date expiration = claims.getExpiration();
+        long expiresAt = expiration != null ? Math.min(expiration.getTime(), now + ttlMs) : now + ttlMs;
+        Identity identity = new Identity(subject, roleHeader, expiresAt);
+        verified.put(token, identity);
+        return identity;
+    }
+
+    // roles is null when the token carries no roles claim
+    record Identity(String userId, String roles, long expiresAt) {
+    }
+
+    /** Drops each entry at its own {@code expiresAt}, however often it is read. */
+    private static final class UntilExpiresAt implements Expiry<String, Identity> {
+
+        @Override
+        public long expireAfterCreate(String token, Identity identity, long currentTime) {
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, identity.expiresAt() - System.currentTimeMillis()));
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, Identity identity, long currentTime, long currentDuration) {
+            return expireAfterCreate(token, identity, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String token, Identity identity, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
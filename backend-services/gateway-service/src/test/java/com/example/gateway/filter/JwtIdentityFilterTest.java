@@ -0,0 +1,97 @@
+package com.example.gateway.filter;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class JwtIdentityFilterTest {
+
+        private static final String SECRET = "very-long-test-secret-key-for-jwt-signing-and-verification-purposes-1234567890";
+
+        private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        private final JwtIdentityFilter filter = new JwtIdentityFilter(SECRET, 300, 100, meterRegistry);
+
+        @Test
+        public void testValidTokenReplacesClientIdentityHeaders() {
+                HttpHeaders forwarded = forward(MockServerHttpRequest.get("/api/orders/my")
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token(SECRET))
+                                .header(JwtIdentityFilter.USER_ID, "someone-else")
+                                .header(JwtIdentityFilter.USER_ROLES, "ROLE_ADMIN"));
+
+                assertEquals(List.of("0912345678"), forwarded.get(JwtIdentityFilter.USER_ID));
+                assertEquals(List.of("ROLE_USER"), forwarded.get(JwtIdentityFilter.USER_ROLES));
+        }
+
+        @Test
+        public void testRepeatedTokenIsVerifiedOnce() {
+                String token = token(SECRET);
+
+                for (int i = 0; i < 3; i++) {
+                        assertEquals("0912345678", filter.verify(token).userId());
+                }
+                assertEquals(1, meterRegistry.counter("gateway.jwt", "result", "verified").count());
+                assertEquals(2, meterRegistry.counter("gateway.jwt", "result", "cached").count());
+
+                JwtIdentityFilter noReuse = new JwtIdentityFilter(SECRET, 0, 100, meterRegistry);
+                noReuse.verify(token);
+                noReuse.verify(token);
+                assertEquals(3, meterRegistry.counter("gateway.jwt", "result", "verified").count());
+        }
+
+        @Test
+        public void testSpoofedHeadersAreDroppedWithoutValidToken() {
+                HttpHeaders anonymous = forward(MockServerHttpRequest.get("/api/orders/my")
+                                .header(JwtIdentityFilter.USER_ID, "0912345678")
+                                .header(JwtIdentityFilter.USER_ROLES, "ROLE_ADMIN"));
+                assertFalse(anonymous.containsKey(JwtIdentityFilter.USER_ID));
+                assertFalse(anonymous.containsKey(JwtIdentityFilter.USER_ROLES));
+
+                HttpHeaders forged = forward(MockServerHttpRequest.get("/api/orders/my")
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer "
+                                                + token("another-secret-of-the-same-length-for-hmac-signing-and-verification-0000"))
+                                .header(JwtIdentityFilter.USER_ID, "0912345678"));
+                assertFalse(forged.containsKey(JwtIdentityFilter.USER_ID));
+        }
+
+        @Test
+        public void testWebSocketHandshakeMayPassTokenAsQueryParameter() {
+                HttpHeaders forwarded = forward(MockServerHttpRequest.get("/ws?access_token=" + token(SECRET))
+                                .header(HttpHeaders.UPGRADE, "websocket"));
+
+                assertEquals(List.of("0912345678"), forwarded.get(JwtIdentityFilter.USER_ID));
+        }
+
+        private HttpHeaders forward(MockServerHttpRequest.BaseBuilder<?> request) {
+                AtomicReference<ServerWebExchange> forwarded = new AtomicReference<>();
+                GatewayFilterChain chain = exchange -> {
+                        forwarded.set(exchange);
+                        return Mono.empty();
+                };
+                filter.filter(MockServerWebExchange.from(request), chain).block();
+                return forwarded.get().getRequest().getHeaders();
+        }
+
+        private static String token(String secret) {
+                return Jwts.builder()
+                                .subject("0912345678")
+                                .claim("roles", List.of("USER"))
+                                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                                .signWith(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)))
+                                .compact();
+        }
+}
@@ -1,7 +1,9 @@
 package com.example.order.config;
 
+import org.springframework.amqp.core.AnonymousQueue;
 import org.springframework.amqp.core.Binding;
 import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.FanoutExchange;
 import org.springframework.amqp.core.Queue;
 import org.springframework.amqp.core.TopicExchange;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
@@ -16,6 +18,11 @@ public class RabbitConfig {
     public static final String EXCHANGE_NAME = "order.events";
     public static final String QUEUE_NAME = "order.created.queue";
     public static final String ROUTING_KEY = "order.created";
+    // Order changes customers are not notified about; only order-service instances listen
+    public static final String CHANGED_ROUTING_KEY = "order.changed";
+    public static final String GUEST_MERGED_ROUTING_KEY = "order.guest-merged";
+    // Restaurant settings changed; every order-service instance refreshes its copy
+    public static final String SETTINGS_EXCHANGE = "order.settings";
 
     @Bean
     public TopicExchange orderExchange() {
@@ -28,8 +35,35 @@ public class RabbitConfig {
     }
 
     @Bean
-    public Binding binding(Queue queue, TopicExchange exchange) {
-        return BindingBuilder.bind(queue).to(exchange).with(ROUTING_KEY);
+    public Binding binding() {
+        return BindingBuilder.bind(orderQueue()).to(orderExchange()).with(ROUTING_KEY);
+    }
+
+    // One auto-deleted queue per instance for every order event, feeding its ActiveOrderBoard
+    @Bean
+    public Queue orderBoardQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding orderBoardBinding() {
+        return BindingBuilder.bind(orderBoardQueue()).to(orderExchange()).with("order.*");
+    }
+
+    @Bean
+    public FanoutExchange settingsExchange() {
+        return new FanoutExchange(SETTINGS_EXCHANGE);
+    }
+
+    // One auto-deleted queue per instance, so each receives every broadcast
+    @Bean
+    public Queue settingsInvalidationQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding settingsBinding() {
+        return BindingBuilder.bind(settingsInvalidationQueue()).to(settingsExchange());
     }
 
     @Bean
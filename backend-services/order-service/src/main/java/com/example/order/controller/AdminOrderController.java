@@ -1,10 +1,13 @@
 package com.example.order.controller;
 
+import com.example.order.dto.ExportFormat;
+import com.example.order.dto.OrderView;
 import com.example.order.entity.Order;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -12,9 +15,15 @@ import java.util.List;
 public class AdminOrderController {
 
     private final com.example.order.service.OrderService orderService;
+    private final com.example.order.service.OrderExport orderExport;
+    private final com.example.order.service.RestaurantSettingsRegistry settingsRegistry;
 
-    public AdminOrderController(com.example.order.service.OrderService orderService) {
+    public AdminOrderController(com.example.order.service.OrderService orderService,
+            com.example.order.service.OrderExport orderExport,
+            com.example.order.service.RestaurantSettingsRegistry settingsRegistry) {
         this.orderService = orderService;
+        this.orderExport = orderExport;
+        this.settingsRegistry = settingsRegistry;
     }
 
     // Constructor with repository is deprecated/removed in favor of Service
@@ -23,7 +32,10 @@ public class AdminOrderController {
 
     @GetMapping("/all")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<Order>> getAllOrders() {
+    public ResponseEntity<List<?>> getAllOrders(@RequestParam(required = false) String view) {
+        if (OrderView.of(view) == OrderView.SUMMARY) {
+            return ResponseEntity.ok(orderService.getAllOrderSummaries());
+        }
         // ideally service should provide this too, but for reading all, repo is fine if
         // we had it.
         // Let's rely on repo for read if we must, or adding getAllOrders to service.
@@ -31,6 +43,53 @@ public class AdminOrderController {
         return ResponseEntity.ok(orderService.getAllOrders());
     }
 
+    /**
+     * Finance export of orders and lines created between two restaurant-local
+     * dates (inclusive; {@code to} defaults to today), streamed as CSV (one row
+     * per line) or NDJSON (one order per line).
+     */
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public void exportOrders(@RequestParam String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(required = false) String format,
+            jakarta.servlet.http.HttpServletResponse response) throws java.io.IOException {
+        ExportFormat exportFormat = ExportFormat.of(format);
+        LocalDate fromDay = parseDay(from);
+        LocalDate toDay = to != null && !to.isBlank() ? parseDay(to) : LocalDate.now(settingsRegistry.zone());
+        if (toDay.isBefore(fromDay)) {
+            throw new org.springframework.web.server.ResponseStatusException(
+                    org.springframework.http.HttpStatus.BAD_REQUEST, "to must not be before from");
+        }
+
+        response.setContentType(exportFormat.contentType());
+        response.setHeader(org.springframework.http.HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"orders-" + fromDay + "-" + toDay + "." + exportFormat.extension() + "\"");
+        orderExport.write(fromDay, toDay, exportFormat, response.getOutputStream());
+    }
+
+    private static LocalDate parseDay(String date) {
+        try {
+            return LocalDate.parse(date.trim());
+        } catch (java.time.format.DateTimeParseException e) {
+            throw new org.springframework.web.server.ResponseStatusException(
+                    org.springframework.http.HttpStatus.BAD_REQUEST, "Invalid date: " + date);
+        }
+    }
+
+    // Kitchen board: orders not yet finished, optionally narrowed to one status or table
+    @GetMapping("/active")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<?>> getActiveOrders(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String table,
+            @RequestParam(required = false) String view) {
+        if (OrderView.of(view) == OrderView.SUMMARY) {
+            return ResponseEntity.ok(orderService.getKitchenOrderSummaries(status, table));
+        }
+        return ResponseEntity.ok(orderService.getKitchenOrders(status, table));
+    }
+
     @PatchMapping("/{id}/status")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Order> updateStatus(@PathVariable Long id,
@@ -46,18 +105,44 @@ public class AdminOrderController {
 
     @GetMapping("/search")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<org.springframework.data.domain.Page<Order>> searchOrders(
+    public ResponseEntity<org.springframework.data.domain.Page<?>> searchOrders(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(required = false) String status,
             @RequestParam(required = false) String date,
-            @RequestParam(required = false) String query) {
+            @RequestParam(required = false) String query,
+            @RequestParam(required = false) String view) {
 
         List<String> statusList = null;
         if (status != null && !status.trim().isEmpty()) {
             statusList = java.util.Arrays.asList(status.split(","));
         }
 
+        if (OrderView.of(view) == OrderView.SUMMARY) {
+            return ResponseEntity.ok(orderService.searchOrderSummaries(page, size, statusList, date, query));
+        }
         return ResponseEntity.ok(orderService.searchOrders(page, size, statusList, date, query));
     }
+
+    // Cursor variant of /search for deep paging: pass nextCursor back as cursor
+    @GetMapping("/search/cursor")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<com.example.order.dto.CursorPage<?>> searchOrdersByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String date,
+            @RequestParam(required = false) String query,
+            @RequestParam(required = false) String view) {
+
+        List<String> statusList = null;
+        if (status != null && !status.trim().isEmpty()) {
+            statusList = java.util.Arrays.asList(status.split(","));
+        }
+
+        if (OrderView.of(view) == OrderView.SUMMARY) {
+            return ResponseEntity.ok(orderService.searchOrderSummaries(cursor, size, statusList, date, query));
+        }
+        return ResponseEntity.ok(orderService.searchOrders(cursor, size, statusList, date, query));
+    }
 }
@@ -1,7 +1,11 @@
 package com.example.order.controller;
 
-import com.example.order.repository.OrderRepository;
-import org.springframework.data.domain.PageRequest;
+import com.example.order.entity.OrderDailyRollup;
+import com.example.order.entity.OrderHourlyRollup;
+import com.example.order.service.OrderFacts;
+import com.example.order.service.OrderRollups;
+import com.example.order.service.RestaurantSettingsRegistry;
+import com.example.order.service.TopSellingItems;
 import org.springframework.web.bind.annotation.*;
 import java.math.BigDecimal;
 import java.time.Instant;
@@ -11,6 +15,8 @@ import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -20,42 +26,33 @@ import org.springframework.security.access.prepost.PreAuthorize;
 @PreAuthorize("hasRole('ADMIN')")
 public class AnalyticsController {
 
-    private final OrderRepository orderRepository;
-    private final com.example.order.repository.RestaurantSettingsRepository settingsRepository;
-
-    public AnalyticsController(OrderRepository orderRepository,
-            com.example.order.repository.RestaurantSettingsRepository settingsRepository) {
-        this.orderRepository = orderRepository;
-        this.settingsRepository = settingsRepository;
+    private static final int MAX_TREND_DAYS = 365;
+
+    private final RestaurantSettingsRegistry settingsRegistry;
+    private final com.example.order.service.ActiveOrderBoard activeOrderBoard;
+    private final OrderRollups orderRollups;
+    private final TopSellingItems topSellingItems;
+    private final OrderFacts orderFacts;
+
+    public AnalyticsController(RestaurantSettingsRegistry settingsRegistry,
+            com.example.order.service.ActiveOrderBoard activeOrderBoard,
+            OrderRollups orderRollups, TopSellingItems topSellingItems, OrderFacts orderFacts) {
+        this.settingsRegistry = settingsRegistry;
+        this.activeOrderBoard = activeOrderBoard;
+        this.orderRollups = orderRollups;
+        this.topSellingItems = topSellingItems;
+        this.orderFacts = orderFacts;
     }
 
     @GetMapping("/summary")
     public SummaryResponse getSummary() {
-        // 1. Get Target Timezone
-        String timeZoneId = settingsRepository.findBySettingKey("TIMEZONE")
-                .map(s -> s.getSettingValue())
-                .orElse("UTC");
-
-        ZoneId zoneId;
-        try {
-            zoneId = ZoneId.of(timeZoneId);
-        } catch (Exception e) {
-            zoneId = ZoneId.of("UTC");
-        }
-
-        // 2. Calculate Start of Day in Target Zone -> UTC Instant
-        // Example: If Timezone is Taipei (+08:00), "Today" starts at 00:00 Taipei.
-        // This is 16:00 Yesterday in UTC.
-        Instant startOfDayUTC = ZonedDateTime.now(zoneId)
-                .with(LocalTime.MIN)
-                .toInstant();
-
-        System.out.println("DEBUG ANALYTICS: Restaurant Timezone = " + timeZoneId);
-        System.out.println("DEBUG ANALYTICS: StartOfDay (UTC Instant) = " + startOfDayUTC);
-
-        BigDecimal todayRevenue = orderRepository.sumTotalPriceAfter(startOfDayUTC);
-        Long todayOrders = orderRepository.countOrdersAfter(startOfDayUTC);
-        Long activeOrders = orderRepository.countOrdersByStatus(Arrays.asList("PENDING", "PREPARING", "PAID"));
+        // "Today" is the restaurant's local day, e.g. from 16:00 UTC yesterday in Taipei (+08:00),
+        // in the zone the day buckets were built for
+        List<OrderDailyRollup> todayRollup = orderRollups.lastDays(1);
+        BigDecimal todayRevenue = todayRollup.stream().map(OrderDailyRollup::getRevenue)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        Long todayOrders = todayRollup.stream().mapToLong(OrderDailyRollup::getOrderCount).sum();
+        Long activeOrders = activeOrderBoard.count(Arrays.asList("PENDING", "PREPARING", "PAID"));
 
         return new SummaryResponse(
                 todayRevenue != null ? todayRevenue : BigDecimal.ZERO,
@@ -63,38 +60,66 @@ public class AnalyticsController {
                 activeOrders != null ? activeOrders : 0L);
     }
 
+    /** Revenue and order count per restaurant-local day for the last {@code days} days, today included. */
     @GetMapping("/trends")
-    public List<TrendResponse> getTrends() {
-        // For trends (last 7 days), we want strictly UTC days for now as the SQL GROUP
-        // BY uses UTC date.
-        // In a future phase, we should inject the timezone into the SQL.
-        Instant sevenDaysAgo = ZonedDateTime.now(ZoneId.of("UTC"))
-                .minusDays(7)
-                .with(LocalTime.MIN)
-                .toInstant();
-
-        List<Object[]> rawData = orderRepository.getDailyRevenueTrends(sevenDaysAgo);
-
-        return rawData.stream()
-                .map(row -> new TrendResponse(
-                        (String) row[0], // Date String
-                        (BigDecimal) row[1], // Total Price
-                        (Long) row[2] // Count
-                ))
+    public List<TrendResponse> getTrends(@RequestParam(defaultValue = "7") int days) {
+        if (days < 1 || days > MAX_TREND_DAYS) {
+            throw new org.springframework.web.server.ResponseStatusException(
+                    org.springframework.http.HttpStatus.BAD_REQUEST, "days must be between 1 and " + MAX_TREND_DAYS);
+        }
+        // One row per day with orders, already in date order
+        return orderRollups.lastDays(days).stream()
+                .map(day -> new TrendResponse(
+                        day.getSaleDay().toString(),
+                        day.getRevenue(),
+                        day.getOrderCount()))
                 .collect(Collectors.toList());
     }
 
     @GetMapping("/top-items")
-    public List<TopItemResponse> getTopItems() {
-        List<Object[]> rawData = orderRepository.getTopSellingItems(PageRequest.of(0, 5));
-
-        return rawData.stream()
-                .map(row -> new TopItemResponse(
-                        (String) row[0],
-                        (Long) row[1]))
+    public List<TopItemResponse> getTopItems(@RequestParam(required = false) String window,
+            @RequestParam(defaultValue = "5") int limit) {
+        return topSellingItems.top(TopSellingItems.Window.of(window), Math.max(0, limit)).stream()
+                .map(estimate -> new TopItemResponse(estimate.item(), estimate.count()))
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Ad-hoc slice of order history, e.g.
+     * {@code ?groupBy=hour,orderType&from=2026-01-01&paymentMethod=CASH,CREDIT_CARD}.
+     * Dates are restaurant-local and inclusive; every dimension can also be a
+     * comma-separated filter (hour, dayOfWeek, status, orderType,
+     * paymentMethod, paymentStatus, table).
+     */
+    @GetMapping("/slice")
+    public List<OrderFacts.Group> getSlice(@RequestParam(required = false) String groupBy,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam Map<String, String> params) {
+        List<OrderFacts.Dimension> dimensions = groupBy == null || groupBy.isBlank() ? List.of()
+                : Arrays.stream(groupBy.split(",")).map(OrderFacts.Dimension::of).distinct().toList();
+        Map<OrderFacts.Dimension, List<String>> filters = new java.util.EnumMap<>(OrderFacts.Dimension.class);
+        for (OrderFacts.Dimension dimension : OrderFacts.Dimension.values()) {
+            String values = params.get(dimension.parameter());
+            if (values != null && !values.isBlank()) {
+                filters.put(dimension, Arrays.asList(values.split(",")));
+            }
+        }
+        ZoneId zone = settingsRegistry.zone();
+        Instant start = from != null && !from.isBlank() ? parseDay(from).atStartOfDay(zone).toInstant() : null;
+        Instant end = to != null && !to.isBlank() ? parseDay(to).plusDays(1).atStartOfDay(zone).toInstant() : null;
+        return orderFacts.query(new OrderFacts.Slice(dimensions, start, end, filters));
+    }
+
+    private static LocalDate parseDay(String date) {
+        try {
+            return LocalDate.parse(date.trim());
+        } catch (java.time.format.DateTimeParseException e) {
+            throw new org.springframework.web.server.ResponseStatusException(
+                    org.springframework.http.HttpStatus.BAD_REQUEST, "Invalid date: " + date);
+        }
+    }
+
     // DTOs
     public static class SummaryResponse {
         public BigDecimal todayRevenue;
@@ -133,31 +158,31 @@ public class AnalyticsController {
     @GetMapping("/distribution")
     public List<DistributionResponse> getDistribution() {
         // 1. Get Target Timezone
-        String timeZoneId = settingsRepository.findBySettingKey("TIMEZONE")
-                .map(s -> s.getSettingValue())
-                .orElse("UTC");
-
-        ZoneId zoneId;
-        try {
-            zoneId = ZoneId.of(timeZoneId);
-        } catch (Exception e) {
-            zoneId = ZoneId.of("UTC");
-        }
+        ZoneId zoneId = settingsRegistry.zone();
 
         Instant startOfDayUTC = ZonedDateTime.now(zoneId)
                 .with(LocalTime.MIN)
                 .toInstant();
 
-        List<Object[]> rawData = orderRepository.getOrderDistribution(startOfDayUTC);
+        // Rollups per type are hourly, so zones with a half-hour offset count from the top of the UTC hour
+        Map<String, List<OrderHourlyRollup>> byType = orderRollups.since(startOfDayUTC).stream()
+                .collect(Collectors.groupingBy(r -> r.getId().getOrderType(), TreeMap::new, Collectors.toList()));
 
-        return rawData.stream()
-                .map(row -> new DistributionResponse(
-                        row[0] != null ? row[0].toString() : "UNKNOWN",
-                        (Long) row[1],
-                        (BigDecimal) row[2]))
+        return byType.entrySet().stream()
+                .map(type -> new DistributionResponse(
+                        type.getKey(),
+                        type.getValue().stream().mapToLong(OrderHourlyRollup::getOrderCount).sum(),
+                        type.getValue().stream().map(OrderHourlyRollup::getRevenue)
+                                .reduce(BigDecimal.ZERO, BigDecimal::add)))
                 .collect(Collectors.toList());
     }
 
+    /** Recomputes the hourly and daily rollups from the orders table (repair after manual data fixes). */
+    @PostMapping("/rollups/rebuild")
+    public Map<String, Integer> rebuildRollups() {
+        return Map.of("buckets", orderRollups.backfill());
+    }
+
     public static class DistributionResponse {
         public String orderType;
         public Long count;
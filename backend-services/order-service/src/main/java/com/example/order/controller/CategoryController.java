@@ -2,6 +2,8 @@ package com.example.order.controller;
 
 import com.example.order.entity.Category;
 import com.example.order.repository.CategoryRepository;
+import com.example.order.service.MenuCatalog;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -13,20 +15,26 @@ import java.util.List;
 public class CategoryController {
 
     private final CategoryRepository categoryRepository;
+    private final MenuCatalog menuCatalog;
 
-    public CategoryController(CategoryRepository categoryRepository) {
+    public CategoryController(CategoryRepository categoryRepository, MenuCatalog menuCatalog) {
         this.categoryRepository = categoryRepository;
+        this.menuCatalog = menuCatalog;
     }
 
     @GetMapping
-    public ResponseEntity<List<Category>> getAllCategories() {
-        return ResponseEntity.ok(categoryRepository.findAll());
+    public ResponseEntity<byte[]> getAllCategories(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return RenderedJsonResponses.of(menuCatalog.current().categoriesJson(), ifNoneMatch, acceptEncoding);
     }
 
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Category> createCategory(@RequestBody Category category) {
-        return ResponseEntity.ok(categoryRepository.save(category));
+        Category saved = categoryRepository.save(category);
+        menuCatalog.invalidate();
+        return ResponseEntity.ok(saved);
     }
 
     @PutMapping("/{id}")
@@ -37,7 +45,9 @@ public class CategoryController {
             Category category = categoryOptional.get();
             category.setName(categoryDetails.getName());
             category.setDisplayOrder(categoryDetails.getDisplayOrder());
-            return ResponseEntity.ok(categoryRepository.save(category));
+            Category saved = categoryRepository.save(category);
+            menuCatalog.invalidate();
+            return ResponseEntity.ok(saved);
         } else {
             return ResponseEntity.notFound().build();
         }
@@ -47,6 +57,7 @@ public class CategoryController {
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Void> deleteCategory(@PathVariable Long id) {
         categoryRepository.deleteById(id);
+        menuCatalog.invalidate();
         return ResponseEntity.ok().build();
     }
 }
@@ -1,9 +1,12 @@
 package com.example.order.controller;
 
 import com.example.order.dto.CreateOrderRequest;
+import com.example.order.dto.OrderView;
 import com.example.order.entity.Menu;
 import com.example.order.entity.Order;
+import com.example.order.service.IdempotencyStore;
 import com.example.order.service.OrderService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -15,14 +18,27 @@ import java.util.List;
 public class OrderController {
 
     private final OrderService orderService;
+    private final IdempotencyStore idempotencyStore;
 
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, IdempotencyStore idempotencyStore) {
         this.orderService = orderService;
+        this.idempotencyStore = idempotencyStore;
     }
 
     @GetMapping("/menus")
-    public ResponseEntity<List<Menu>> getMenus() {
-        return ResponseEntity.ok(orderService.getAllMenus());
+    public ResponseEntity<byte[]> getMenus(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        // Rendered once per catalog change; see MenuCatalog
+        return RenderedJsonResponses.of(orderService.getMenusJson(), ifNoneMatch, acceptEncoding);
+    }
+
+    // Categories with their menus nested: one request for the whole menu page
+    @GetMapping("/catalog")
+    public ResponseEntity<byte[]> getCatalog(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return RenderedJsonResponses.of(orderService.getCatalogJson(), ifNoneMatch, acceptEncoding);
     }
 
     @PostMapping("/menus")
@@ -46,9 +62,24 @@ public class OrderController {
 
     @PostMapping
     public ResponseEntity<Order> createOrder(@RequestHeader(value = "X-User-Id", required = false) String userId,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @RequestBody CreateOrderRequest request) {
         // userId is nullable for Guest Orders (DINE_IN only)
-        return ResponseEntity.ok(orderService.createOrder(userId, request));
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return ResponseEntity.ok(orderService.createOrder(userId, request));
+        }
+        // Client retries with the same key replay the first response instead of creating a new order.
+        // Guests are scoped by their guest token so one guest can never replay another's order.
+        String owner = userId != null && !userId.isBlank() ? userId : guestScope(request.getGuestToken());
+        if (owner == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        String key = "order:" + owner + ":" + idempotencyKey;
+        return ResponseEntity.ok(idempotencyStore.execute(key, () -> orderService.createOrder(userId, request)));
+    }
+
+    private static String guestScope(String guestToken) {
+        return guestToken == null || guestToken.isBlank() ? null : "guest:" + guestToken;
     }
 
     @GetMapping("/{id}")
@@ -60,34 +91,62 @@ public class OrderController {
 
     @GetMapping("/my")
     @org.springframework.security.access.prepost.PreAuthorize("hasRole('USER')")
-    public ResponseEntity<List<Order>> getMyOrders(@RequestHeader("X-User-Id") String userId) {
+    public ResponseEntity<List<?>> getMyOrders(@RequestHeader("X-User-Id") String userId,
+            @RequestParam(required = false) String view) {
         if (userId == null || userId.isEmpty()) {
             return ResponseEntity.badRequest().build();
         }
+        if (OrderView.of(view) == OrderView.SUMMARY) {
+            return ResponseEntity.ok(orderService.getMyOrderSummaries(userId));
+        }
         return ResponseEntity.ok(orderService.getMyOrders(userId));
     }
 
     @GetMapping("/my/active")
     @org.springframework.security.access.prepost.PreAuthorize("hasRole('USER')")
-    public ResponseEntity<List<Order>> getMyActiveOrders(@RequestHeader("X-User-Id") String userId) {
+    public ResponseEntity<List<?>> getMyActiveOrders(@RequestHeader("X-User-Id") String userId,
+            @RequestParam(required = false) String view) {
         if (userId == null || userId.isEmpty()) {
             return ResponseEntity.badRequest().build();
         }
+        if (OrderView.of(view) == OrderView.SUMMARY) {
+            return ResponseEntity.ok(orderService.getActiveOrderSummaries(userId));
+        }
         return ResponseEntity.ok(orderService.getActiveOrders(userId));
     }
 
     @GetMapping("/my/history")
     @org.springframework.security.access.prepost.PreAuthorize("hasRole('USER')")
-    public ResponseEntity<org.springframework.data.domain.Page<Order>> getOrderHistory(
+    public ResponseEntity<org.springframework.data.domain.Page<?>> getOrderHistory(
             @RequestHeader("X-User-Id") String userId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String view) {
         if (userId == null || userId.isEmpty()) {
             return ResponseEntity.badRequest().build();
         }
+        if (OrderView.of(view) == OrderView.SUMMARY) {
+            return ResponseEntity.ok(orderService.getOrderHistorySummaries(userId, page, size));
+        }
         return ResponseEntity.ok(orderService.getOrderHistory(userId, page, size));
     }
 
+    @GetMapping("/my/history/cursor")
+    @org.springframework.security.access.prepost.PreAuthorize("hasRole('USER')")
+    public ResponseEntity<com.example.order.dto.CursorPage<?>> getOrderHistoryByCursor(
+            @RequestHeader("X-User-Id") String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String view) {
+        if (userId == null || userId.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (OrderView.of(view) == OrderView.SUMMARY) {
+            return ResponseEntity.ok(orderService.getOrderHistorySummaries(userId, cursor, size));
+        }
+        return ResponseEntity.ok(orderService.getOrderHistory(userId, cursor, size));
+    }
+
     @PostMapping("/{id}/pay")
     public ResponseEntity<?> initiatePayment(@PathVariable Long id,
             @RequestHeader(value = "X-User-Id", required = false) String userId,
@@ -103,7 +162,13 @@ public class OrderController {
     @PostMapping("/payment/callback")
     public ResponseEntity<Void> completePaymentCallback(@RequestParam Long orderId,
             @RequestParam(required = false) String paymentId) {
-        orderService.completePayment(orderId, paymentId);
+        if (paymentId != null && !paymentId.isBlank()) {
+            // Gateway retries of the same payment are answered from the store
+            idempotencyStore.execute("payment:" + orderId + ":" + paymentId,
+                    () -> orderService.completePayment(orderId, paymentId));
+        } else {
+            orderService.completePayment(orderId, paymentId);
+        }
         // Redirect back to Frontend Application
         return ResponseEntity.status(org.springframework.http.HttpStatus.FOUND)
                 .location(java.util.Objects.requireNonNull(java.net.URI.create("http://localhost:10000/my-orders")))
@@ -0,0 +1,70 @@
+package com.example.order.controller;
+
+import com.example.order.service.RenderedJson;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Serves a {@link RenderedJson} body: 304 when the client already holds the
+ * current ETag, the gzip copy when the client accepts it, the plain bytes
+ * otherwise. Clients are told to revalidate, so a catalog change is seen on
+ * the next request.
+ */
+final class RenderedJsonResponses {
+
+    private RenderedJsonResponses() {
+    }
+
+    static ResponseEntity<byte[]> of(RenderedJson rendered, String ifNoneMatch, String acceptEncoding) {
+        boolean gzip = acceptsGzip(acceptEncoding);
+        String etag = gzip ? rendered.gzipEtag() : rendered.etag();
+        boolean notModified = matches(ifNoneMatch, rendered);
+        ResponseEntity.BodyBuilder response = ResponseEntity
+                .status(notModified ? HttpStatus.NOT_MODIFIED : HttpStatus.OK)
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (notModified) {
+            return response.build();
+        }
+        response.contentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(rendered.gzipped());
+        }
+        return response.body(rendered.body());
+    }
+
+    // Weak comparison (RFC 9110 13.1.2); either encoding's tag names the same content
+    private static boolean matches(String ifNoneMatch, RenderedJson rendered) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            String candidate = tag.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals("*") || candidate.equals(rendered.etag())
+                    || candidate.equals(rendered.gzipEtag())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.order.dto;
+
+import com.example.order.entity.Category;
+import com.example.order.entity.Menu;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The whole public menu in one document: categories in display order with
+ * their items nested, then items without a category.
+ */
+public record CatalogView(List<CategoryEntry> categories, List<MenuEntry> uncategorized) {
+
+    public record CategoryEntry(Long id, String name, Integer displayOrder, List<MenuEntry> items) {
+    }
+
+    public record MenuEntry(Long id, String name, BigDecimal price, String description, String imageUrl) {
+
+        static MenuEntry of(Menu menu) {
+            return new MenuEntry(menu.getId(), menu.getName(), menu.getPrice(), menu.getDescription(),
+                    menu.getImageUrl());
+        }
+    }
+
+    // Unset displayOrder sorts last; ties keep creation order
+    private static final Comparator<Category> DISPLAY_ORDER = Comparator
+            .comparing(Category::getDisplayOrder, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(Category::getId, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    /** Groups {@code menus} (in the order given) under {@code categories}. */
+    public static CatalogView of(List<Category> categories, List<Menu> menus) {
+        Map<Long, List<MenuEntry>> itemsByCategory = new LinkedHashMap<>();
+        List<MenuEntry> uncategorized = new ArrayList<>();
+        for (Menu menu : menus) {
+            if (menu.getCategory() != null && menu.getCategory().getId() != null) {
+                itemsByCategory.computeIfAbsent(menu.getCategory().getId(), id -> new ArrayList<>())
+                        .add(MenuEntry.of(menu));
+            } else {
+                uncategorized.add(MenuEntry.of(menu));
+            }
+        }
+        List<CategoryEntry> entries = categories.stream()
+                .sorted(DISPLAY_ORDER)
+                .map(category -> new CategoryEntry(category.getId(), category.getName(),
+                        category.getDisplayOrder(), itemsByCategory.getOrDefault(category.getId(), List.of())))
+                .toList();
+        return new CatalogView(entries, uncategorized);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.order.dto;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/** {@code format} parameter of the admin order export. */
+public enum ExportFormat {
+    CSV("text/csv;charset=UTF-8", "csv"),
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    public static ExportFormat of(String format) {
+        if (format == null || format.isBlank() || format.equalsIgnoreCase("csv")) {
+            return CSV;
+        }
+        if (format.equalsIgnoreCase("ndjson")) {
+            return NDJSON;
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "format must be 'csv' or 'ndjson'");
+    }
+}
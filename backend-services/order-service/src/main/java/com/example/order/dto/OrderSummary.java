@@ -0,0 +1,25 @@
+package com.example.order.dto;
+
+import com.example.order.entity.Order;
+import com.example.order.entity.OrderType;
+import com.example.order.entity.PaymentStatus;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * What order lists actually display. Loaded by constructor expression, so
+ * no entity, items, guest token or payment id is read or tracked.
+ */
+public record OrderSummary(Long id, String userId, String status, PaymentStatus paymentStatus,
+        OrderType orderType, String tableNumber, BigDecimal totalPrice, Instant createdAt) {
+
+    // JPQL constructor expression for repository queries over "Order o"
+    public static final String SELECT = "SELECT new com.example.order.dto.OrderSummary(o.id, o.userId, o.status, "
+            + "o.paymentStatus, o.orderType, o.tableNumber, o.totalPrice, o.createdAt) ";
+
+    public static OrderSummary of(Order order) {
+        return new OrderSummary(order.getId(), order.getUserId(), order.getStatus(), order.getPaymentStatus(),
+                order.getOrderType(), order.getTableNumber(), order.getTotalPrice(), order.getCreatedAt());
+    }
+}
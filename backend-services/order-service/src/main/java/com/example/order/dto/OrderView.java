@@ -0,0 +1,19 @@
+package com.example.order.dto;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/** {@code view} parameter of the order list endpoints. */
+public enum OrderView {
+    FULL, SUMMARY;
+
+    public static OrderView of(String view) {
+        if (view == null || view.isBlank() || view.equalsIgnoreCase("full")) {
+            return FULL;
+        }
+        if (view.equalsIgnoreCase("summary")) {
+            return SUMMARY;
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "view must be 'summary' or 'full'");
+    }
+}
@@ -8,10 +8,24 @@ import java.util.List;
 
 @Entity
 @Data
-@Table(name = "orders") // 'order' is a reserved keyword in SQL
+@Table(name = "orders", indexes = { // 'order' is a reserved keyword in SQL
+        // Date-range search and keyset paging (newest first)
+        @Index(name = "idx_orders_created_at", columnList = "created_at, id"),
+        // Order id / customer prefix search and per-user listings
+        @Index(name = "idx_orders_user_created", columnList = "user_id, created_at"),
+        // Customer active/history tabs: equality on user and status, newest first
+        @Index(name = "idx_orders_user_status_created", columnList = "user_id, status, created_at"),
+        // Status counts and kitchen/board loads by status
+        @Index(name = "idx_orders_status_created", columnList = "status, created_at"),
+        // Guest-to-account merge
+        @Index(name = "idx_orders_guest_token", columnList = "guest_token")
+})
 public class Order {
+    // Pooled table IDs (not IDENTITY) so Hibernate can batch inserts; see data.sql for seeding
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "orders_id")
+    @TableGenerator(name = "orders_id", table = "id_generator", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "orders", allocationSize = 50)
     private Long id;
 
     @Column(nullable = true)
@@ -37,6 +51,28 @@ public class Order {
 
     private java.time.Instant createdAt = java.time.Instant.now();
 
+    // Optimistic lock: concurrent read-modify-write (addItems, status/payment updates) is retried, not lost
+    @Version
+    @Column(columnDefinition = "bigint not null default 0")
+    private Long version;
+
+    // Lines of every order on a page load with one IN (...) query instead of one query per order
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL)
+    @org.hibernate.annotations.BatchSize(size = 100)
     private List<OrderItem> items;
+
+    // Values last counted in the rollups (OrderRollups); null until loaded or first counted
+    @Transient
+    @com.fasterxml.jackson.annotation.JsonIgnore
+    private BigDecimal rolledUpTotalPrice;
+
+    @Transient
+    @com.fasterxml.jackson.annotation.JsonIgnore
+    private PaymentStatus rolledUpPaymentStatus;
+
+    @PostLoad
+    void rememberRolledUpValues() {
+        rolledUpTotalPrice = totalPrice;
+        rolledUpPaymentStatus = paymentStatus;
+    }
 }
@@ -0,0 +1,27 @@
+package com.example.order.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Order count and revenue per restaurant-local day, kept in step with the
+ * orders table by {@code OrderRollups}. Unlike the UTC hourly rollups these
+ * follow the TIMEZONE setting exactly, including half-hour offsets; the zone
+ * they were built in is kept in {@link OrderRollupState}.
+ */
+@Entity
+@Data
+@Table(name = "order_daily_rollup")
+public class OrderDailyRollup {
+    @Id
+    private LocalDate saleDay;
+
+    @Column(nullable = false)
+    private long orderCount;
+
+    @Column(nullable = false)
+    private BigDecimal revenue = BigDecimal.ZERO;
+}
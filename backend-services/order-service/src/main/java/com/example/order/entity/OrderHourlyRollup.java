@@ -0,0 +1,25 @@
+package com.example.order.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * Order count and revenue per (hour, order type, payment status), kept in
+ * step with the orders table by {@code OrderRollups} so analytics read a
+ * few dozen rows instead of scanning order history.
+ */
+@Entity
+@Data
+@Table(name = "order_hourly_rollup")
+public class OrderHourlyRollup {
+    @EmbeddedId
+    private OrderHourlyRollupId id;
+
+    @Column(nullable = false)
+    private long orderCount;
+
+    @Column(nullable = false)
+    private BigDecimal revenue = BigDecimal.ZERO;
+}
@@ -0,0 +1,25 @@
+package com.example.order.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderHourlyRollupId implements Serializable {
+    @Column(name = "bucket_hour")
+    private Instant bucketHour; // Start of the UTC hour the orders were created in
+
+    @Column(name = "order_type", length = 20)
+    private String orderType;
+
+    @Column(name = "payment_status", length = 20)
+    private String paymentStatus;
+}
@@ -6,9 +6,15 @@ import java.math.BigDecimal;
 
 @Entity
 @Data
+@Table(indexes = {
+        // Loading an order's lines
+        @Index(name = "idx_order_item_order", columnList = "order_id")
+})
 public class OrderItem {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "order_item_id")
+    @TableGenerator(name = "order_item_id", table = "id_generator", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "order_item", allocationSize = 50)
     private Long id;
 
     @com.fasterxml.jackson.annotation.JsonIgnore
@@ -21,4 +27,14 @@ public class OrderItem {
     private BigDecimal snapshotPrice;
     private Integer quantity;
     private String notes;
+
+    // Already counted by TopSellingItems: loaded lines were, new ones are not until recorded
+    @Transient
+    @com.fasterxml.jackson.annotation.JsonIgnore
+    private boolean tallied;
+
+    @PostLoad
+    void markTallied() {
+        tallied = true;
+    }
 }
@@ -0,0 +1,39 @@
+package com.example.order.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * A change to the order rollups, appended in the transaction of the order
+ * write that caused it and folded into the rollup rows shortly after commit
+ * by {@code OrderRollups}. Plain inserts, so concurrent order writes never
+ * wait on each other for a shared counter row.
+ */
+@Entity
+@Data
+@Table(name = "order_rollup_delta")
+public class OrderRollupDelta {
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "order_rollup_delta_id")
+    @TableGenerator(name = "order_rollup_delta_id", table = "id_generator", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "order_rollup_delta", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private Instant createdAt; // Of the order: picks the hour (and day) bucket
+
+    @Column(nullable = false, length = 20)
+    private String orderType;
+
+    @Column(nullable = false, length = 20)
+    private String paymentStatus;
+
+    @Column(nullable = false)
+    private long orderCount; // -1, 0 or 1
+
+    @Column(nullable = false)
+    private BigDecimal revenue = BigDecimal.ZERO;
+}
@@ -0,0 +1,24 @@
+package com.example.order.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * The single row (id 1) that serializes work on the rollup rows and says
+ * which timezone the day buckets are in. Folding {@link OrderRollupDelta}s
+ * and rebuilding from the orders table both take it FOR UPDATE, so every
+ * replica buckets days in the same zone however stale its settings snapshot
+ * is; order writes never touch it.
+ */
+@Entity
+@Data
+@Table(name = "order_rollup_state")
+public class OrderRollupState {
+    public static final int ID = 1;
+
+    @Id
+    private Integer id;
+
+    @Column(nullable = false, length = 64)
+    private String dayZone;
+}
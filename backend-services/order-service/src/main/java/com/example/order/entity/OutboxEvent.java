@@ -0,0 +1,44 @@
+package com.example.order.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Order event waiting to be relayed to RabbitMQ.
+ * Written in the same transaction as the order change it describes and
+ * deleted once the broker has confirmed the publish.
+ */
+@Entity
+@Data
+@Table(name = "order_outbox")
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "order_outbox_id")
+    @TableGenerator(name = "order_outbox_id", table = "id_generator", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "order_outbox", allocationSize = 50)
+    private Long id;
+
+    private Long aggregateId; // Order ID
+
+    @Column(nullable = false)
+    private String exchange;
+
+    @Column(nullable = false)
+    private String routingKey;
+
+    @Column(nullable = false, length = 4000)
+    private String payload; // JSON body, published as-is
+
+    private String payloadType; // Class the payload was serialized from, sent as the __TypeId__ header
+
+    private Instant createdAt = Instant.now();
+
+    private int attempts;
+
+    private String lastError;
+
+    // Set while a relay is publishing the event; other relays skip it until then
+    private Instant claimedUntil;
+}
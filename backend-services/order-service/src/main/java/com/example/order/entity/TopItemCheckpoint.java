@@ -0,0 +1,27 @@
+package com.example.order.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * One instance's best-sellers summary for one day, saved periodically by
+ * {@code TopSellingItems} so the rankings survive restarts and every
+ * instance can merge in the sales the others have seen.
+ */
+@Entity
+@Data
+@Table(name = "top_item_checkpoint", indexes = {
+        @Index(name = "idx_top_item_checkpoint_day", columnList = "sale_day")
+})
+public class TopItemCheckpoint {
+    @EmbeddedId
+    private TopItemCheckpointId id;
+
+    @Lob
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload; // JSON list of {item, count, error}
+
+    private Instant updatedAt = Instant.now();
+}
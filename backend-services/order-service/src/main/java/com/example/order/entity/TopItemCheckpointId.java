@@ -0,0 +1,22 @@
+package com.example.order.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TopItemCheckpointId implements Serializable {
+    @Column(name = "node_id", length = 64)
+    private String nodeId; // Service instance that wrote the summary; "backfill" for the initial load
+
+    @Column(name = "sale_day")
+    private LocalDate saleDay; // Restaurant-local day the items were sold on
+}
@@ -0,0 +1,31 @@
+package com.example.order.repository;
+
+import com.example.order.entity.OrderDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface OrderDailyRollupRepository extends JpaRepository<OrderDailyRollup, LocalDate> {
+
+        // Atomic increment; creates the day on first use. Folded in from OrderRollupDelta rows.
+        @Modifying
+        @Query(value = "INSERT INTO order_daily_rollup (sale_day, order_count, revenue) "
+                        + "VALUES (:saleDay, :countDelta, :revenueDelta) "
+                        + "ON DUPLICATE KEY UPDATE order_count = order_count + :countDelta, "
+                        + "revenue = revenue + :revenueDelta", nativeQuery = true)
+        int increment(@Param("saleDay") LocalDate saleDay,
+                        @Param("countDelta") long countDelta,
+                        @Param("revenueDelta") BigDecimal revenueDelta);
+
+        @Query("SELECT r FROM OrderDailyRollup r WHERE r.saleDay >= :from ORDER BY r.saleDay")
+        List<OrderDailyRollup> findSince(@Param("from") LocalDate from);
+
+        @Modifying
+        @Query("DELETE FROM OrderDailyRollup r")
+        int deleteAllRollups();
+}
@@ -0,0 +1,42 @@
+package com.example.order.repository;
+
+import com.example.order.entity.OrderHourlyRollup;
+import com.example.order.entity.OrderHourlyRollupId;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface OrderHourlyRollupRepository extends JpaRepository<OrderHourlyRollup, OrderHourlyRollupId> {
+
+        // Atomic increment; creates the bucket on first use. Folded in from OrderRollupDelta rows.
+        @Modifying
+        @Query(value = "INSERT INTO order_hourly_rollup (bucket_hour, order_type, payment_status, order_count, revenue) "
+                        + "VALUES (:bucketHour, :orderType, :paymentStatus, :countDelta, :revenueDelta) "
+                        + "ON DUPLICATE KEY UPDATE order_count = order_count + :countDelta, "
+                        + "revenue = revenue + :revenueDelta", nativeQuery = true)
+        int increment(@Param("bucketHour") Instant bucketHour,
+                        @Param("orderType") String orderType,
+                        @Param("paymentStatus") String paymentStatus,
+                        @Param("countDelta") long countDelta,
+                        @Param("revenueDelta") BigDecimal revenueDelta);
+
+        @Query("SELECT r FROM OrderHourlyRollup r WHERE r.id.bucketHour >= :from")
+        List<OrderHourlyRollup> findSince(@Param("from") Instant from);
+
+        // Backfill source: every order's bucket inputs, streamed rather than loaded at once
+        @QueryHints(@QueryHint(name = org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+        @Query("SELECT o.createdAt, o.orderType, o.paymentStatus, o.totalPrice FROM Order o")
+        Stream<Object[]> streamBucketInputs();
+
+        @Modifying
+        @Query("DELETE FROM OrderHourlyRollup r")
+        int deleteAllRollups();
+}
@@ -1,68 +1,171 @@
 package com.example.order.repository;
 
+import com.example.order.dto.OrderSummary;
 import com.example.order.entity.Order;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import java.time.Instant;
-import java.math.BigDecimal;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import java.util.List;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
+        // Admin search filters. Every predicate is sargable: the day is a createdAt range (computed
+        // in the restaurant timezone by the caller), the query is an exact id or a userId prefix.
+        String SEARCH_FILTER = "((:statuses) IS NULL OR o.status IN (:statuses)) AND " +
+                        "(:from IS NULL OR o.createdAt >= :from) AND " +
+                        "(:to IS NULL OR o.createdAt < :to) AND " +
+                        "(:userPrefix IS NULL OR o.id = :queryId OR o.userId LIKE :userPrefix ESCAPE '!')";
+
+        // Keyset position: rows strictly after the (createdAt, id) cursor, newest first
+        String AFTER_CURSOR = "(:cursorCreatedAt IS NULL OR o.createdAt < :cursorCreatedAt OR " +
+                        "(o.createdAt = :cursorCreatedAt AND o.id < :cursorId)) ";
+
+        String NEWEST_FIRST = "ORDER BY o.createdAt DESC, o.id DESC";
+
+        // Unpaged lists fetch their lines in the same query; paged queries rely on
+        // @BatchSize on Order.items instead (a fetch join would paginate in memory).
+        @EntityGraph(attributePaths = "items")
+        List<Order> findAll(org.springframework.data.domain.Sort sort);
+
+        @EntityGraph(attributePaths = "items")
         List<Order> findByUserIdOrderByCreatedAtDesc(String userId);
 
+        @EntityGraph(attributePaths = "items")
         List<Order> findByUserIdAndStatusIn(String userId, List<String> statuses,
                         org.springframework.data.domain.Sort sort);
 
         org.springframework.data.domain.Page<Order> findByUserIdAndStatusIn(String userId, List<String> statuses,
                         org.springframework.data.domain.Pageable pageable);
 
-        // Analytics
+        // Seeds the in-memory active-orders board: one query, lines included
+        @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.items WHERE o.status IN :statuses")
+        List<Order> findWithItemsByStatusIn(@Param("statuses") List<String> statuses);
+
+        // Refreshes board entries another instance changed
+        @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.items WHERE o.id IN :ids")
+        List<Order> findWithItemsByIdIn(@Param("ids") java.util.Collection<Long> ids);
 
-        @Query("SELECT SUM(o.totalPrice) FROM Order o WHERE o.createdAt >= :date")
-        BigDecimal sumTotalPriceAfter(@Param("date") Instant date);
+        // Analytics
 
-        @Query("SELECT COUNT(o) FROM Order o WHERE o.createdAt >= :date")
-        Long countOrdersAfter(@Param("date") Instant date);
+        // Revenue and order counts come from the hourly rollups (OrderHourlyRollupRepository)
 
         @Query("SELECT COUNT(o) FROM Order o WHERE o.status IN :statuses")
         Long countOrdersByStatus(@Param("statuses") List<String> statuses);
 
-        // Group By Date: Returns [Date(String), TotalRevenue(BigDecimal), Count(Long)]
-        // NOTE: DATE_FORMAT on Instant (UTC) works, but groups by UTC Date.
-        // Ideal long term is CONVERT_TZ, but for MVP this ensures strict UTC grouping.
-        @Query("SELECT FUNCTION('DATE_FORMAT', o.createdAt, '%Y-%m-%d') as date, SUM(o.totalPrice), COUNT(o) " +
-                        "FROM Order o WHERE o.createdAt >= :date " +
-                        "GROUP BY FUNCTION('DATE_FORMAT', o.createdAt, '%Y-%m-%d') " +
-                        "ORDER BY date ASC")
-        List<Object[]> getDailyRevenueTrends(@Param("date") Instant date);
-
-        // Top Items: Returns [ItemName(String), TotalQuantity(Long)]
-        @Query("SELECT oi.snapshotName, SUM(oi.quantity) " +
-                        "FROM OrderItem oi " +
-                        "GROUP BY oi.snapshotName " +
-                        "ORDER BY SUM(oi.quantity) DESC")
-        List<Object[]> getTopSellingItems(org.springframework.data.domain.Pageable pageable);
-
-        // Distribution by OrderType: Returns [OrderType(Enum), Count(Long),
-        // Revenue(BigDecimal)]
-        @Query("SELECT o.orderType, COUNT(o), SUM(o.totalPrice) " +
-                        "FROM Order o WHERE o.createdAt >= :date " +
-                        "GROUP BY o.orderType")
-        List<Object[]> getOrderDistribution(@Param("date") Instant date);
+        // Export: one row per order line (one with null line columns for an order without lines), in
+        // (createdAt, id) order so each order's lines are adjacent. Scalar rows, streamed from a
+        // forward-only cursor: nothing is kept in the persistence context.
+        @org.springframework.data.jpa.repository.QueryHints({
+                        @jakarta.persistence.QueryHint(name = org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE,
+                                        value = "" + Integer.MIN_VALUE),
+                        @jakarta.persistence.QueryHint(name = org.hibernate.jpa.HibernateHints.HINT_READ_ONLY,
+                                        value = "true") })
+        @Query("SELECT o.id, o.createdAt, o.userId, o.status, o.paymentStatus, o.orderType, o.paymentMethod, " +
+                        "o.tableNumber, o.totalPrice, oi.snapshotName, oi.quantity, oi.snapshotPrice, oi.notes " +
+                        "FROM Order o LEFT JOIN o.items oi " +
+                        "WHERE o.createdAt >= :from AND o.createdAt < :to " +
+                        "ORDER BY o.createdAt, o.id, oi.id")
+        java.util.stream.Stream<Object[]> streamExportRows(@Param("from") Instant from, @Param("to") Instant to);
+
+        // Loads the ad-hoc analytics columns (OrderFacts): one scalar row per order with its item count, streamed
+        @org.springframework.data.jpa.repository.QueryHints(@jakarta.persistence.QueryHint(
+                        name = org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+        @Query("SELECT o.id, o.version, o.createdAt, o.status, o.orderType, o.paymentMethod, o.paymentStatus, " +
+                        "o.tableNumber, o.totalPrice, " +
+                        "(SELECT COALESCE(SUM(oi.quantity), 0) FROM OrderItem oi WHERE oi.order = o) " +
+                        "FROM Order o WHERE o.createdAt >= :from")
+        java.util.stream.Stream<Object[]> streamFactsSince(@Param("from") Instant from);
+
+        // Seeds the best-sellers summary (TopSellingItems): [createdAt, itemName, quantity] per line, streamed
+        @org.springframework.data.jpa.repository.QueryHints(@jakarta.persistence.QueryHint(
+                        name = org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+        @Query("SELECT o.createdAt, oi.snapshotName, oi.quantity FROM OrderItem oi JOIN oi.order o " +
+                        "WHERE o.createdAt >= :from")
+        java.util.stream.Stream<Object[]> streamItemSalesSince(@Param("from") Instant from);
 
         // Phase 20: Server-Side Search & Pagination
-        @Query("SELECT o FROM Order o WHERE " +
-                        "((:statuses) IS NULL OR o.status IN (:statuses)) AND " +
-                        "(:date IS NULL OR FUNCTION('DATE_FORMAT', o.createdAt, '%Y-%m-%d') = :date) AND " +
-                        "(:query IS NULL OR (CAST(o.id AS string) LIKE %:query% OR LOWER(o.userId) LIKE %:query%))")
+        @Query("SELECT o FROM Order o WHERE " + SEARCH_FILTER)
         org.springframework.data.domain.Page<Order> findOrders(
                         @Param("statuses") List<String> statuses,
-                        @Param("date") String date,
-                        @Param("query") String query,
+                        @Param("from") Instant from,
+                        @Param("to") Instant to,
+                        @Param("queryId") Long queryId,
+                        @Param("userPrefix") String userPrefix,
+                        org.springframework.data.domain.Pageable pageable);
+
+        // Keyset variant of findOrders: rows strictly after the (createdAt, id) cursor, no COUNT query.
+        // Callers pass PageRequest.of(0, size + 1) and use the extra row only to detect hasMore.
+        @Query("SELECT o FROM Order o WHERE " + SEARCH_FILTER + " AND " + AFTER_CURSOR + NEWEST_FIRST)
+        List<Order> findOrdersAfter(
+                        @Param("statuses") List<String> statuses,
+                        @Param("from") Instant from,
+                        @Param("to") Instant to,
+                        @Param("queryId") Long queryId,
+                        @Param("userPrefix") String userPrefix,
+                        @Param("cursorCreatedAt") Instant cursorCreatedAt,
+                        @Param("cursorId") Long cursorId,
+                        org.springframework.data.domain.Pageable pageable);
+
+        @Query("SELECT o FROM Order o WHERE o.userId = :userId AND o.status IN :statuses AND " + AFTER_CURSOR
+                        + NEWEST_FIRST)
+        List<Order> findByUserIdAndStatusInAfter(
+                        @Param("userId") String userId,
+                        @Param("statuses") List<String> statuses,
+                        @Param("cursorCreatedAt") Instant cursorCreatedAt,
+                        @Param("cursorId") Long cursorId,
+                        org.springframework.data.domain.Pageable pageable);
+
+        // Summary projections (view=summary): same filters, only the columns lists display
+
+        @Query(OrderSummary.SELECT + "FROM Order o")
+        List<OrderSummary> findAllSummaries(org.springframework.data.domain.Sort sort);
+
+        @Query(OrderSummary.SELECT + "FROM Order o WHERE o.userId = :userId " + NEWEST_FIRST)
+        List<OrderSummary> findSummariesByUserId(@Param("userId") String userId);
+
+        @Query(OrderSummary.SELECT + "FROM Order o WHERE o.userId = :userId AND o.status IN :statuses")
+        List<OrderSummary> findSummariesByUserIdAndStatusIn(@Param("userId") String userId,
+                        @Param("statuses") List<String> statuses, org.springframework.data.domain.Sort sort);
+
+        @Query(value = OrderSummary.SELECT + "FROM Order o WHERE o.userId = :userId AND o.status IN :statuses",
+                        countQuery = "SELECT COUNT(o) FROM Order o WHERE o.userId = :userId AND o.status IN :statuses")
+        org.springframework.data.domain.Page<OrderSummary> findSummariesByUserIdAndStatusIn(
+                        @Param("userId") String userId,
+                        @Param("statuses") List<String> statuses,
+                        org.springframework.data.domain.Pageable pageable);
+
+        @Query(OrderSummary.SELECT + "FROM Order o WHERE o.userId = :userId AND o.status IN :statuses AND "
+                        + AFTER_CURSOR + NEWEST_FIRST)
+        List<OrderSummary> findSummariesByUserIdAndStatusInAfter(
+                        @Param("userId") String userId,
+                        @Param("statuses") List<String> statuses,
+                        @Param("cursorCreatedAt") Instant cursorCreatedAt,
+                        @Param("cursorId") Long cursorId,
+                        org.springframework.data.domain.Pageable pageable);
+
+        @Query(value = OrderSummary.SELECT + "FROM Order o WHERE " + SEARCH_FILTER,
+                        countQuery = "SELECT COUNT(o) FROM Order o WHERE " + SEARCH_FILTER)
+        org.springframework.data.domain.Page<OrderSummary> findOrderSummaries(
+                        @Param("statuses") List<String> statuses,
+                        @Param("from") Instant from,
+                        @Param("to") Instant to,
+                        @Param("queryId") Long queryId,
+                        @Param("userPrefix") String userPrefix,
+                        org.springframework.data.domain.Pageable pageable);
+
+        @Query(OrderSummary.SELECT + "FROM Order o WHERE " + SEARCH_FILTER + " AND " + AFTER_CURSOR + NEWEST_FIRST)
+        List<OrderSummary> findOrderSummariesAfter(
+                        @Param("statuses") List<String> statuses,
+                        @Param("from") Instant from,
+                        @Param("to") Instant to,
+                        @Param("queryId") Long queryId,
+                        @Param("userPrefix") String userPrefix,
+                        @Param("cursorCreatedAt") Instant cursorCreatedAt,
+                        @Param("cursorId") Long cursorId,
                         org.springframework.data.domain.Pageable pageable);
 
         @org.springframework.data.jpa.repository.Modifying
-        @Query("UPDATE Order o SET o.userId = :userId WHERE o.guestToken = :guestToken")
+        @Query("UPDATE Order o SET o.userId = :userId, o.version = o.version + 1 WHERE o.guestToken = :guestToken")
         int mergeGuestOrders(@Param("userId") String userId, @Param("guestToken") String guestToken);
 }
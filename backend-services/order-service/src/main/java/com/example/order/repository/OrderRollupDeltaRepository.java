@@ -0,0 +1,18 @@
+package com.example.order.repository;
+
+import com.example.order.entity.OrderRollupDelta;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface OrderRollupDeltaRepository extends JpaRepository<OrderRollupDelta, Long> {
+
+        // No row locks: only the holder of the state row lock reads or deletes deltas
+        @Query("SELECT d FROM OrderRollupDelta d ORDER BY d.id ASC")
+        List<OrderRollupDelta> findOldest(Pageable pageable);
+
+        @Query("SELECT d.id FROM OrderRollupDelta d")
+        List<Long> findAllIds();
+}
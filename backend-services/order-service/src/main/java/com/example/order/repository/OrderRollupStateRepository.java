@@ -0,0 +1,33 @@
+package com.example.order.repository;
+
+import com.example.order.entity.OrderRollupState;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface OrderRollupStateRepository extends JpaRepository<OrderRollupState, Integer> {
+
+        // Folding deltas: empty while another replica folds or rebuilds (lock timeout -2 = SKIP LOCKED)
+        @Lock(LockModeType.PESSIMISTIC_WRITE)
+        @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+        @Query("SELECT s FROM OrderRollupState s WHERE s.id = " + OrderRollupState.ID)
+        Optional<OrderRollupState> tryLock();
+
+        // Rebuilds: waits for a fold in progress, then keeps others out until commit
+        @Lock(LockModeType.PESSIMISTIC_WRITE)
+        @Query("SELECT s FROM OrderRollupState s WHERE s.id = " + OrderRollupState.ID)
+        Optional<OrderRollupState> lock();
+
+        // Days start out in the zone of whichever replica starts first
+        @Modifying
+        @Query(value = "INSERT IGNORE INTO order_rollup_state (id, day_zone) VALUES (" + OrderRollupState.ID
+                        + ", :zone)", nativeQuery = true)
+        int createIfAbsent(@Param("zone") String zone);
+}
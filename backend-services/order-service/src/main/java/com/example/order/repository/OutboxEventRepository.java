@@ -0,0 +1,35 @@
+package com.example.order.repository;
+
+import com.example.order.entity.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+        // Oldest unclaimed events first; rows another replica's relay is claiming
+        // right now are skipped (lock timeout -2 = SKIP LOCKED) instead of blocking on them.
+        @Lock(LockModeType.PESSIMISTIC_WRITE)
+        @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+        @Query("SELECT e FROM OutboxEvent e WHERE e.claimedUntil IS NULL OR e.claimedUntil < :now ORDER BY e.id ASC")
+        List<OutboxEvent> lockNextBatch(@Param("now") Instant now, Pageable pageable);
+
+        // Unconfirmed: count the attempt and hand the event back to the next poll
+        @Modifying
+        @Query("UPDATE OutboxEvent e SET e.attempts = e.attempts + 1, e.lastError = :error, e.claimedUntil = NULL "
+                        + "WHERE e.id = :id")
+        int release(@Param("id") Long id, @Param("error") String error);
+
+        @Modifying
+        @Query("UPDATE OutboxEvent e SET e.claimedUntil = NULL WHERE e.id = :id")
+        int clearClaim(@Param("id") Long id);
+}
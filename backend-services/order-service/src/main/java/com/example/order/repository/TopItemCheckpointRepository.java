@@ -0,0 +1,21 @@
+package com.example.order.repository;
+
+import com.example.order.entity.TopItemCheckpoint;
+import com.example.order.entity.TopItemCheckpointId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface TopItemCheckpointRepository extends JpaRepository<TopItemCheckpoint, TopItemCheckpointId> {
+
+        @Query("SELECT c FROM TopItemCheckpoint c WHERE c.id.saleDay >= :from")
+        List<TopItemCheckpoint> findSince(@Param("from") LocalDate from);
+
+        @Modifying
+        @Query("DELETE FROM TopItemCheckpoint c WHERE c.id.saleDay < :day")
+        int deleteOlderThan(@Param("day") LocalDate day);
+}
@@ -1,59 +1,104 @@
 package com.example.order.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
-import javax.crypto.SecretKey;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Authenticates requests carrying a bearer JWT.
+ *
+ * The signing key and parser are built once. Clients poll with the same
+ * token, so verified tokens are remembered (by SHA-256 digest, never the
+ * token itself) until they expire or {@code app.jwt.cache.ttl-seconds}
+ * passes, whichever comes first. Tokens that fail verification are never
+ * cached. The cache is bounded by {@code app.jwt.cache.max-entries} and
+ * lock-free on reads, so concurrent requests never queue behind each other
+ * for a lookup.
+ *
+ * With {@code app.security.trust-gateway-identity} on, the X-User-Id and
+ * X-User-Roles headers the gateway sets after verifying the token are used
+ * directly. Only enable it where the service is reachable solely through
+ * the gateway, which strips client-supplied copies.
+ */
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
-    @Value("${app.jwt.secret}")
-    private String jwtSecret;
+    private final JwtParser parser;
+    private final boolean trustGatewayIdentity;
+    private final long ttlMs;
+    private final Counter hits;
+    private final Counter misses;
+    private final Cache<String, Verified> verified;
+
+    public JwtAuthenticationFilter(@Value("${app.jwt.secret}") String jwtSecret,
+            @Value("${app.jwt.cache.ttl-seconds:300}") long ttlSeconds,
+            @Value("${app.jwt.cache.max-entries:10000}") int maxEntries,
+            @Value("${app.security.trust-gateway-identity:false}") boolean trustGatewayIdentity,
+            MeterRegistry meterRegistry) {
+        this.trustGatewayIdentity = trustGatewayIdentity;
+        this.parser = Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8)))
+                .build();
+        this.ttlMs = ttlSeconds * 1000;
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfter(new UntilExpiresAt())
+                .build();
+        this.hits = Counter.builder("order.jwt.cache").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("order.jwt.cache").tag("result", "miss").register(meterRegistry);
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
 
         String header = request.getHeader("Authorization");
+        String gatewayUser = trustGatewayIdentity ? request.getHeader("X-User-Id") : null;
+        String gatewayRoles = trustGatewayIdentity ? request.getHeader("X-User-Roles") : null;
 
-        if (header != null && header.startsWith("Bearer ")) {
+        if (gatewayUser != null && gatewayRoles != null) {
+            // Already verified at the gateway
+            List<GrantedAuthority> authorities = Arrays.stream(gatewayRoles.split(","))
+                    .filter(role -> !role.isBlank())
+                    .<GrantedAuthority>map(SimpleGrantedAuthority::new)
+                    .toList();
+            SecurityContextHolder.getContext().setAuthentication(
+                    new UsernamePasswordAuthenticationToken(gatewayUser, null, authorities));
+        } else if (header != null && header.startsWith("Bearer ")) {
             String token = header.substring(7);
 
             try {
-                SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-                Claims claims = Jwts.parserBuilder()
-                        .setSigningKey(key)
-                        .build()
-                        .parseClaimsJws(token)
-                        .getBody();
-
-                String username = claims.getSubject();
-                List<String> roles = claims.get("roles", List.class);
-
-                if (username != null && roles != null) {
-                    List<SimpleGrantedAuthority> authorities = roles.stream()
-                            .map(role -> role.startsWith("ROLE_") ? role : "ROLE_" + role)
-                            .map(SimpleGrantedAuthority::new)
-                            .collect(Collectors.toList());
-
+                Verified identity = verify(token);
+                if (identity != null) {
                     UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
-                            username, null, authorities);
+                            identity.username(), null, identity.authorities());
 
                     SecurityContextHolder.getContext().setAuthentication(auth);
                 }
@@ -65,4 +110,65 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    /** Username and authorities of a valid token; null when it names no user or roles. */
+    private Verified verify(String token) {
+        String digest = digest(token);
+        Verified cached = verified.getIfPresent(digest);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        String username = claims.getSubject();
+        List<?> roles = claims.get("roles", List.class);
+        if (username == null || roles == null) {
+            return null;
+        }
+        List<GrantedAuthority> authorities = roles.stream()
+                .map(String::valueOf)
+                .map(role -> role.startsWith("ROLE_") ? role : "ROLE_" + role)
+                .<GrantedAuthority>map(SimpleGrantedAuthority::new)
+                .toList();
+
+        long now = System.currentTimeMillis();
+        Date expiration = claims.getExpiration();
+        long expiresAt = expiration != null ? Math.min(expiration.getTime(), now + ttlMs) : now + ttlMs;
+        Verified identity = new Verified(username, authorities, expiresAt);
+        verified.put(digest, identity);
+        return identity;
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Verified(String username, List<GrantedAuthority> authorities, long expiresAt) {
+    }
+
+    /** Drops each entry at its own {@code expiresAt}, however often it is read. */
+    private static final class UntilExpiresAt implements Expiry<String, Verified> {
+
+        @Override
+        public long expireAfterCreate(String digest, Verified identity, long currentTime) {
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, identity.expiresAt() - System.currentTimeMillis()));
+        }
+
+        @Override
+        public long expireAfterUpdate(String digest, Verified identity, long currentTime, long currentDuration) {
+            return expireAfterCreate(digest, identity, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String digest, Verified identity, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
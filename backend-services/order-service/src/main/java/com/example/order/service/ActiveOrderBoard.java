@@ -0,0 +1,377 @@
+package com.example.order.service;
+
+import com.example.order.config.RabbitConfig;
+import com.example.order.entity.Order;
+import com.example.order.entity.OrderItem;
+import com.example.order.repository.OrderRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory board of orders that are still in progress (PENDING, PAID,
+ * PREPARING, READY), indexed by status and table, for the kitchen view and
+ * dashboard counts. Customer-facing lists read the database instead, since
+ * this board sees other replicas' writes only once their events arrive.
+ *
+ * Seeded from the database at startup, then kept current from this
+ * instance's {@link OrderChangedEvent}s after each commit and from the order
+ * events every instance publishes through the outbox, which arrive on a
+ * queue of its own. A periodic resync is the safety net for events lost
+ * while the broker or this listener was down. Orders handed out are detached
+ * copies shared between readers and must not be modified.
+ */
+@Component
+public class ActiveOrderBoard {
+
+    private static final Logger log = LoggerFactory.getLogger(ActiveOrderBoard.class);
+
+    public static final List<String> ACTIVE_STATUSES = List.of("PENDING", "PAID", "PREPARING", "READY");
+
+    private static final int MAX_RETIRED = 10000;
+    private static final Comparator<Order> NEWEST_FIRST = Comparator
+            .comparing(Order::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(Order::getId, Comparator.reverseOrder());
+
+    private final OrderRepository orderRepository;
+    private final TransactionTemplate readTemplate;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock seedLock = new ReentrantLock();
+
+    private final Map<Long, Entry> byId = new HashMap<>();
+    private final Map<String, Set<Long>> byStatus = new HashMap<>();
+    private final Map<String, Set<Long>> byTable = new HashMap<>();
+    // Last version of orders that left the board, so a late event cannot bring them back
+    private final LinkedHashMap<Long, Long> retired = new LinkedHashMap<>();
+    private long generation;
+    private volatile boolean seeded;
+
+    public ActiveOrderBoard(OrderRepository orderRepository, PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry) {
+        this.orderRepository = orderRepository;
+        this.readTemplate = new TransactionTemplate(transactionManager);
+        this.readTemplate.setReadOnly(true);
+        Gauge.builder("order.board.active", this, ActiveOrderBoard::size).register(meterRegistry);
+    }
+
+    /** Orders on the board, newest first; {@code status} and {@code tableNumber} are optional filters. */
+    public List<Order> list(String status, String tableNumber) {
+        ensureSeeded();
+        lock.readLock().lock();
+        try {
+            Collection<Long> ids;
+            if (status != null && tableNumber != null) {
+                ids = intersect(byStatus.getOrDefault(status, Set.of()), byTable.getOrDefault(tableNumber, Set.of()));
+            } else if (status != null) {
+                ids = byStatus.getOrDefault(status, Set.of());
+            } else if (tableNumber != null) {
+                ids = byTable.getOrDefault(tableNumber, Set.of());
+            } else {
+                ids = byId.keySet();
+            }
+            return collect(ids);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long count(Collection<String> statuses) {
+        ensureSeeded();
+        lock.readLock().lock();
+        try {
+            long count = 0;
+            for (String status : statuses) {
+                count += byStatus.getOrDefault(status, Set.of()).size();
+            }
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return byId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOrderChanged(OrderChangedEvent event) {
+        Order copy = copyOf(event.order());
+        lock.writeLock().lock();
+        try {
+            apply(copy);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onGuestOrdersMerged(GuestOrdersMergedEvent event) {
+        lock.writeLock().lock();
+        try {
+            for (Entry entry : new ArrayList<>(byId.values())) {
+                Order order = entry.order;
+                if (event.guestToken().equals(order.getGuestToken())) {
+                    Order merged = copyOf(order);
+                    merged.setUserId(event.userId());
+                    merged.setVersion(versionOf(order) + 1); // Mirrors the bulk update
+                    apply(merged);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Order events from every instance, this one included, after the relay
+     * has published them. The order is reloaded rather than taken from the
+     * message, and only applied if newer than the board's copy.
+     */
+    @RabbitListener(queues = "#{orderBoardQueue.name}")
+    public void onOrderEvent(Map<String, Object> event,
+            @Header(AmqpHeaders.RECEIVED_ROUTING_KEY) String routingKey) {
+        Set<Long> ids = new HashSet<>();
+        lock.readLock().lock();
+        try {
+            if (RabbitConfig.GUEST_MERGED_ROUTING_KEY.equals(routingKey)) {
+                for (Entry entry : byId.values()) {
+                    if (entry.order.getGuestToken() != null
+                            && entry.order.getGuestToken().equals(event.get("guestToken"))) {
+                        ids.add(entry.order.getId());
+                    }
+                }
+            } else if (event.get("orderId") instanceof Number orderId
+                    && (ACTIVE_STATUSES.contains(event.get("status")) || byId.containsKey(orderId.longValue()))) {
+                ids.add(orderId.longValue());
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+        try {
+            List<Order> loaded = readTemplate.execute(status -> {
+                List<Order> copies = new ArrayList<>();
+                for (Order order : orderRepository.findWithItemsByIdIn(ids)) {
+                    copies.add(copyOf(order));
+                }
+                return copies;
+            });
+            lock.writeLock().lock();
+            try {
+                loaded.forEach(this::apply);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } catch (RuntimeException e) {
+            // Not requeued: the next resync catches up
+            log.warn("Could not refresh orders {} on the board: {}", ids, e.getMessage());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        ensureSeeded();
+    }
+
+    @Scheduled(initialDelayString = "${app.active-board.resync-interval-ms:300000}",
+            fixedDelayString = "${app.active-board.resync-interval-ms:300000}")
+    public void resync() {
+        seedLock.lock();
+        try {
+            long startedAt;
+            lock.writeLock().lock();
+            try {
+                startedAt = ++generation;
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            List<Order> loaded = readTemplate.execute(status -> {
+                List<Order> copies = new ArrayList<>();
+                for (Order order : orderRepository.findWithItemsByStatusIn(ACTIVE_STATUSES)) {
+                    copies.add(copyOf(order));
+                }
+                return copies;
+            });
+
+            lock.writeLock().lock();
+            try {
+                Set<Long> present = new HashSet<>();
+                for (Order order : loaded) {
+                    present.add(order.getId());
+                    apply(order);
+                }
+                // Finished elsewhere; entries changed by a commit during the load are newer than the query
+                for (Entry entry : new ArrayList<>(byId.values())) {
+                    if (entry.generation < startedAt && !present.contains(entry.order.getId())) {
+                        unindex(entry.order);
+                        byId.remove(entry.order.getId());
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            seeded = true;
+        } finally {
+            seedLock.unlock();
+        }
+    }
+
+    private void ensureSeeded() {
+        if (!seeded) {
+            seedLock.lock();
+            try {
+                // First caller loads; concurrent callers wait for its result
+                if (!seeded) {
+                    resync();
+                }
+            } finally {
+                seedLock.unlock();
+            }
+        }
+    }
+
+    // Caller holds the write lock. Newer versions win, so out-of-order commits settle correctly.
+    private void apply(Order order) {
+        Long id = order.getId();
+        long version = versionOf(order);
+        Entry current = byId.get(id);
+        if (current != null && versionOf(current.order) > version) {
+            return;
+        }
+        Long retiredVersion = retired.get(id);
+        if (retiredVersion != null && retiredVersion >= version) {
+            return;
+        }
+
+        if (current != null) {
+            unindex(current.order);
+        }
+        if (ACTIVE_STATUSES.contains(order.getStatus())) {
+            byId.put(id, new Entry(order, generation));
+            index(byStatus, order.getStatus(), id);
+            index(byTable, order.getTableNumber(), id);
+        } else {
+            byId.remove(id);
+            retired.put(id, version);
+            if (retired.size() > MAX_RETIRED) {
+                Iterator<Long> eldest = retired.keySet().iterator();
+                eldest.next();
+                eldest.remove();
+            }
+        }
+    }
+
+    private void unindex(Order order) {
+        unindex(byStatus, order.getStatus(), order.getId());
+        unindex(byTable, order.getTableNumber(), order.getId());
+    }
+
+    private static void index(Map<String, Set<Long>> index, String key, Long id) {
+        if (key != null) {
+            index.computeIfAbsent(key, k -> new HashSet<>()).add(id);
+        }
+    }
+
+    private static void unindex(Map<String, Set<Long>> index, String key, Long id) {
+        if (key == null) {
+            return;
+        }
+        Set<Long> ids = index.get(key);
+        if (ids != null && ids.remove(id) && ids.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    private static Collection<Long> intersect(Set<Long> a, Set<Long> b) {
+        Set<Long> smaller = a.size() <= b.size() ? a : b;
+        Set<Long> larger = smaller == a ? b : a;
+        List<Long> both = new ArrayList<>();
+        for (Long id : smaller) {
+            if (larger.contains(id)) {
+                both.add(id);
+            }
+        }
+        return both;
+    }
+
+    private List<Order> collect(Collection<Long> ids) {
+        List<Order> orders = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            orders.add(byId.get(id).order);
+        }
+        orders.sort(NEWEST_FIRST);
+        return orders;
+    }
+
+    private static long versionOf(Order order) {
+        return order.getVersion() != null ? order.getVersion() : 0L;
+    }
+
+    private static Order copyOf(Order order) {
+        Order copy = new Order();
+        copy.setId(order.getId());
+        copy.setUserId(order.getUserId());
+        copy.setGuestToken(order.getGuestToken());
+        copy.setTotalPrice(order.getTotalPrice());
+        copy.setStatus(order.getStatus());
+        copy.setOrderType(order.getOrderType());
+        copy.setPaymentMethod(order.getPaymentMethod());
+        copy.setPaymentStatus(order.getPaymentStatus());
+        copy.setPaymentId(order.getPaymentId());
+        copy.setTableNumber(order.getTableNumber());
+        copy.setCreatedAt(order.getCreatedAt());
+        copy.setVersion(order.getVersion());
+        List<OrderItem> items = new ArrayList<>();
+        if (order.getItems() != null) {
+            for (OrderItem item : order.getItems()) {
+                OrderItem itemCopy = new OrderItem();
+                itemCopy.setId(item.getId());
+                itemCopy.setOrder(copy);
+                itemCopy.setMenuId(item.getMenuId());
+                itemCopy.setSnapshotName(item.getSnapshotName());
+                itemCopy.setSnapshotPrice(item.getSnapshotPrice());
+                itemCopy.setQuantity(item.getQuantity());
+                itemCopy.setNotes(item.getNotes());
+                items.add(itemCopy);
+            }
+        }
+        copy.setItems(java.util.Collections.unmodifiableList(items));
+        return copy;
+    }
+
+    private record Entry(Order order, long generation) {
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.order.service;
+
+import com.example.order.entity.Category;
+import com.example.order.entity.Menu;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, versioned copy of the menu catalog.
+ * Instances are detached from the persistence context and must never be
+ * modified; a new snapshot is built whenever the catalog changes.
+ * {@code menusJson}, {@code categoriesJson} and {@code catalogJson} are the
+ * public endpoints' response bodies, rendered from the same lists.
+ */
+public record CatalogSnapshot(long version, List<Menu> menus, List<Category> categories,
+        Map<Long, Menu> menusById, RenderedJson menusJson, RenderedJson categoriesJson,
+        RenderedJson catalogJson) {
+
+    public Menu findMenu(Long menuId) {
+        return menuId != null ? menusById.get(menuId) : null;
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.order.service;
+
+/**
+ * Published when a bulk update moves guest orders onto a user account. The
+ * JPQL update bypasses the entities, so in-memory views apply it themselves.
+ */
+public record GuestOrdersMergedEvent(String userId, String guestToken) {
+}
@@ -0,0 +1,71 @@
+package com.example.order.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, expiring cache of responses keyed by client idempotency key.
+ *
+ * The first request for a key runs the action; retries arriving while it is
+ * still running wait for the same result, and later retries get the cached
+ * response without touching the database. Failed actions are not cached so
+ * the client can retry them. Backed by a Caffeine cache, so concurrent
+ * requests for different keys do not contend on a shared lock.
+ */
+@Component
+public class IdempotencyStore {
+
+    private final Counter replays;
+    private final Cache<String, CompletableFuture<Object>> entries;
+
+    public IdempotencyStore(@Value("${app.idempotency.ttl-seconds:600}") long ttlSeconds,
+            @Value("${app.idempotency.max-entries:10000}") int maxEntries,
+            MeterRegistry meterRegistry) {
+        this.replays = Counter.builder("order.idempotency.replays").register(meterRegistry);
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Supplier<T> action) {
+        CompletableFuture<Object> created = new CompletableFuture<>();
+        CompletableFuture<Object> running = entries.asMap().putIfAbsent(key, created);
+
+        if (running == null) {
+            try {
+                T result = action.get();
+                created.complete(result);
+                return result;
+            } catch (Throwable e) {
+                // Errors too: waiters must never be left blocked on a result that will not come
+                entries.asMap().remove(key, created);
+                created.completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        replays.increment();
+        try {
+            return (T) running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
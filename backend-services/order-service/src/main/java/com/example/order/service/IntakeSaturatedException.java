@@ -0,0 +1,26 @@
+package com.example.order.service;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Order intake queue is full: answered with 503 and a Retry-After hint so
+ * clients back off instead of piling more work onto the writer.
+ */
+public class IntakeSaturatedException extends ResponseStatusException {
+
+    private final long retryAfterSeconds;
+
+    public IntakeSaturatedException(long retryAfterSeconds) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, "Order intake is busy, please retry");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        return headers;
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.order.service;
+
+import java.time.Instant;
+import java.util.Map;
+
+/** Order lines written in a transaction: quantity per item name. Delivered after commit. */
+public record ItemsSoldEvent(Instant soldAt, Map<String, Long> quantities) {
+}
@@ -0,0 +1,175 @@
+package com.example.order.service;
+
+import com.example.order.dto.CatalogView;
+import com.example.order.entity.Category;
+import com.example.order.entity.Menu;
+import com.example.order.repository.CategoryRepository;
+import com.example.order.repository.MenuRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory catalog of menus and categories used for order pricing and the
+ * public menu endpoints.
+ *
+ * Readers always see a complete {@link CatalogSnapshot}; writers call
+ * {@link #invalidate()} and the snapshot is rebuilt and swapped in atomically
+ * once their transaction has committed. A periodic refresh picks up changes
+ * written by other replicas.
+ *
+ * Each snapshot also carries the menu and category lists pre-rendered as
+ * JSON; a rebuild only re-serializes a list that actually changed.
+ */
+@Component
+public class MenuCatalog {
+
+    private final MenuRepository menuRepository;
+    private final CategoryRepository categoryRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readTemplate;
+    // ReentrantLock rather than synchronized: rebuilds do JDBC I/O and must not pin virtual threads
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    private volatile CatalogSnapshot snapshot;
+    private long lastVersion;
+
+    public MenuCatalog(MenuRepository menuRepository, CategoryRepository categoryRepository,
+            ObjectMapper objectMapper, PlatformTransactionManager transactionManager) {
+        this.menuRepository = menuRepository;
+        this.categoryRepository = categoryRepository;
+        this.objectMapper = objectMapper;
+        this.readTemplate = new TransactionTemplate(transactionManager);
+        // Always read in a fresh persistence context: rebuilds also run from
+        // afterCommit hooks where the caller's (now committed) context is still bound.
+        this.readTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTemplate.setReadOnly(true);
+    }
+
+    public CatalogSnapshot current() {
+        CatalogSnapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        rebuildLock.lock();
+        try {
+            // First caller loads; concurrent callers wait and reuse its snapshot
+            return snapshot != null ? snapshot : refresh();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Resolves a menu for pricing. Falls back to the database when the id is
+     * not in the snapshot (e.g. written around the catalog) and schedules a
+     * rebuild so the next lookup is served from memory again.
+     */
+    public Menu getMenu(Long menuId) {
+        java.util.Objects.requireNonNull(menuId);
+        Menu menu = current().findMenu(menuId);
+        if (menu != null) {
+            return menu;
+        }
+        Menu loaded = menuRepository.findById(menuId)
+                .orElseThrow(() -> new RuntimeException("Menu not found: " + menuId));
+        invalidate();
+        return loaded;
+    }
+
+    /**
+     * Rebuilds the snapshot after the current transaction commits, or
+     * immediately when called outside a transaction.
+     */
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    refresh();
+                }
+            });
+        } else {
+            refresh();
+        }
+    }
+
+    @Scheduled(initialDelayString = "${app.catalog.refresh-interval-ms:60000}",
+            fixedDelayString = "${app.catalog.refresh-interval-ms:60000}")
+    public void scheduledRefresh() {
+        refresh();
+    }
+
+    public CatalogSnapshot refresh() {
+        rebuildLock.lock();
+        try {
+            CatalogSnapshot rebuilt = readTemplate.execute(status -> load(++lastVersion, snapshot));
+            snapshot = rebuilt;
+            return rebuilt;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private CatalogSnapshot load(long version, CatalogSnapshot previous) {
+        List<Category> categories = new ArrayList<>();
+        Map<Long, Category> categoriesById = new HashMap<>();
+        for (Category category : categoryRepository.findAll(Sort.by("id"))) {
+            Category copy = copyOf(category);
+            categories.add(copy);
+            categoriesById.put(copy.getId(), copy);
+        }
+
+        List<Menu> menus = new ArrayList<>();
+        Map<Long, Menu> menusById = new HashMap<>();
+        for (Menu menu : menuRepository.findAll(Sort.by("id"))) {
+            Menu copy = new Menu();
+            copy.setId(menu.getId());
+            copy.setName(menu.getName());
+            copy.setPrice(menu.getPrice());
+            copy.setDescription(menu.getDescription());
+            copy.setImageUrl(menu.getImageUrl());
+            if (menu.getCategory() != null) {
+                copy.setCategory(categoriesById.computeIfAbsent(menu.getCategory().getId(),
+                        id -> copyOf(menu.getCategory())));
+            }
+            menus.add(copy);
+            menusById.put(copy.getId(), copy);
+        }
+
+        // Periodic refreshes usually find nothing changed; keep the bytes (and ETags) already rendered
+        RenderedJson menusJson = previous != null && previous.menus().equals(menus)
+                ? previous.menusJson() : RenderedJson.of(objectMapper, menus);
+        RenderedJson categoriesJson = previous != null && previous.categories().equals(categories)
+                ? previous.categoriesJson() : RenderedJson.of(objectMapper, categories);
+        RenderedJson catalogJson = previous != null && menusJson == previous.menusJson()
+                && categoriesJson == previous.categoriesJson()
+                        ? previous.catalogJson()
+                        : RenderedJson.of(objectMapper, CatalogView.of(categories, menus));
+
+        return new CatalogSnapshot(version, Collections.unmodifiableList(menus),
+                Collections.unmodifiableList(categories), Collections.unmodifiableMap(menusById),
+                menusJson, categoriesJson, catalogJson);
+    }
+
+    private static Category copyOf(Category category) {
+        Category copy = new Category();
+        copy.setId(category.getId());
+        copy.setName(category.getName());
+        copy.setDisplayOrder(category.getDisplayOrder());
+        return copy;
+    }
+}
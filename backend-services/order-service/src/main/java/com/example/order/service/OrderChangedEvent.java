@@ -0,0 +1,21 @@
+package com.example.order.service;
+
+import com.example.order.entity.Order;
+import org.hibernate.Hibernate;
+
+/**
+ * Published in-process, inside the writing transaction, whenever an order is
+ * written. Components that must change together with the order (analytics
+ * rollups, the best-sellers tally) listen with a plain {@code @EventListener}
+ * and so run in that transaction; in-memory views use
+ * {@code @TransactionalEventListener(AFTER_COMMIT)} so they only ever see
+ * committed state.
+ */
+public record OrderChangedEvent(Order order) {
+
+    /** Initializes the order's items first: after-commit listeners may run without a session. */
+    public static OrderChangedEvent of(Order order) {
+        Hibernate.initialize(order.getItems());
+        return new OrderChangedEvent(order);
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.order.service;
+
+import com.example.order.config.RabbitConfig;
+import com.example.order.entity.Order;
+import com.example.order.entity.OutboxEvent;
+import com.example.order.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Records order events in the outbox table as part of the caller's
+ * transaction. {@link OutboxRelay} publishes them after commit.
+ */
+@Component
+public class OrderEventOutbox {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    public OrderEventOutbox(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /** An order change customers are notified about. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(Order order) {
+        save(order.getId(), RabbitConfig.ROUTING_KEY, orderEvent(order));
+    }
+
+    /** An order change only other order-service instances hear about, e.g. a new payment method. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void appendChange(Order order) {
+        save(order.getId(), RabbitConfig.CHANGED_ROUTING_KEY, orderEvent(order));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void appendGuestOrdersMerged(String userId, String guestToken) {
+        Map<String, Object> event = new HashMap<>();
+        event.put("userId", userId);
+        event.put("guestToken", guestToken);
+        save(null, RabbitConfig.GUEST_MERGED_ROUTING_KEY, event);
+    }
+
+    private static Map<String, Object> orderEvent(Order order) {
+        Map<String, Object> event = new HashMap<>();
+        event.put("orderId", order.getId());
+        event.put("userId", order.getUserId());
+        event.put("status", order.getStatus());
+        event.put("totalPrice", order.getTotalPrice());
+        return event;
+    }
+
+    private void save(Long aggregateId, String routingKey, Map<String, Object> event) {
+        OutboxEvent outboxEvent = new OutboxEvent();
+        outboxEvent.setAggregateId(aggregateId);
+        outboxEvent.setExchange(RabbitConfig.EXCHANGE_NAME);
+        outboxEvent.setRoutingKey(routingKey);
+        try {
+            outboxEvent.setPayload(objectMapper.writeValueAsString(event));
+            outboxEvent.setPayloadType(event.getClass().getName());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + routingKey + " event for order " + aggregateId, e);
+        }
+        outboxEventRepository.save(outboxEvent);
+    }
+}
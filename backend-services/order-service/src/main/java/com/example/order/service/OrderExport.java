@@ -0,0 +1,158 @@
+package com.example.order.service;
+
+import com.example.order.dto.ExportFormat;
+import com.example.order.repository.OrderRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Bulk export of orders and their lines for finance.
+ *
+ * Rows come from a forward-only cursor and are written to the output as
+ * they arrive, so memory stays flat however long the range is: CSV holds
+ * one row at a time, NDJSON one order.
+ */
+@Component
+public class OrderExport {
+
+    private static final String CSV_HEADER = "order_id,created_at,user_id,status,payment_status,order_type,"
+            + "payment_method,table_number,order_total,item_name,quantity,unit_price,notes\n";
+
+    private final OrderRepository orderRepository;
+    private final RestaurantSettingsRegistry settingsRegistry;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readTemplate;
+
+    public OrderExport(OrderRepository orderRepository, RestaurantSettingsRegistry settingsRegistry,
+            ObjectMapper objectMapper, PlatformTransactionManager transactionManager) {
+        this.orderRepository = orderRepository;
+        this.settingsRegistry = settingsRegistry;
+        this.objectMapper = objectMapper;
+        this.readTemplate = new TransactionTemplate(transactionManager);
+        this.readTemplate.setReadOnly(true);
+    }
+
+    /** Writes orders created on restaurant-local days {@code from} to {@code to}, both inclusive. */
+    public void write(LocalDate from, LocalDate to, ExportFormat format, OutputStream out) throws IOException {
+        ZoneId zone = settingsRegistry.zone();
+        Instant start = from.atStartOfDay(zone).toInstant();
+        Instant end = to.plusDays(1).atStartOfDay(zone).toInstant();
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        try {
+            readTemplate.executeWithoutResult(status -> {
+                try (Stream<Object[]> rows = orderRepository.streamExportRows(start, end)) {
+                    if (format == ExportFormat.NDJSON) {
+                        writeNdjson(rows.iterator(), writer);
+                    } else {
+                        writeCsv(rows.iterator(), writer);
+                    }
+                } catch (IOException e) {
+                    // Usually the client went away; closing the stream releases the cursor
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private static void writeCsv(Iterator<Object[]> rows, Writer writer) throws IOException {
+        writer.write(CSV_HEADER);
+        StringBuilder line = new StringBuilder(256);
+        while (rows.hasNext()) {
+            Object[] row = rows.next();
+            line.setLength(0);
+            for (int i = 0; i < row.length; i++) {
+                if (i > 0) {
+                    line.append(',');
+                }
+                appendCsv(line, row[i]);
+            }
+            line.append('\n');
+            writer.append(line);
+        }
+    }
+
+    private static void appendCsv(StringBuilder line, Object value) {
+        if (value == null) {
+            return;
+        }
+        String text = value.toString();
+        if (!(value instanceof Number) && !text.isEmpty() && "=+-@".indexOf(text.charAt(0)) >= 0) {
+            // Keep spreadsheets from evaluating user-supplied text as a formula
+            text = "'" + text;
+        }
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0
+                || text.indexOf('\r') >= 0) {
+            line.append('"').append(text.replace("\"", "\"\"")).append('"');
+        } else {
+            line.append(text);
+        }
+    }
+
+    // Rows arrive grouped by order, so an order is complete when the next one starts
+    private void writeNdjson(Iterator<Object[]> rows, Writer writer) throws IOException {
+        Map<String, Object> order = null;
+        List<Map<String, Object>> items = null;
+        Object orderId = null;
+        while (rows.hasNext()) {
+            Object[] row = rows.next();
+            if (order == null || !Objects.equals(orderId, row[0])) {
+                if (order != null) {
+                    writeLine(order, writer);
+                }
+                orderId = row[0];
+                items = new ArrayList<>();
+                order = new LinkedHashMap<>();
+                order.put("id", row[0]);
+                order.put("createdAt", row[1]);
+                order.put("userId", row[2]);
+                order.put("status", row[3]);
+                order.put("paymentStatus", row[4]);
+                order.put("orderType", row[5]);
+                order.put("paymentMethod", row[6]);
+                order.put("tableNumber", row[7]);
+                order.put("totalPrice", row[8]);
+                order.put("items", items);
+            }
+            if (row[9] != null) {
+                Map<String, Object> item = new LinkedHashMap<>();
+                item.put("name", row[9]);
+                item.put("quantity", row[10]);
+                item.put("unitPrice", row[11]);
+                item.put("notes", row[12]);
+                items.add(item);
+            }
+        }
+        if (order != null) {
+            writeLine(order, writer);
+        }
+    }
+
+    private void writeLine(Map<String, Object> order, Writer writer) throws IOException {
+        writer.write(objectMapper.writeValueAsString(order));
+        writer.write('\n');
+    }
+}
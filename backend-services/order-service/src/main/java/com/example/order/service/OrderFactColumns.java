@@ -0,0 +1,265 @@
+package com.example.order.service;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Column-oriented copy of the order facts {@link OrderFacts} queries: one
+ * primitive array per attribute, text attributes dictionary-encoded to int
+ * codes, money in cents. A group-by is a single pass over a few int and long
+ * arrays, split across cores.
+ *
+ * Not thread-safe; {@link OrderFacts} serialises writers against readers.
+ */
+final class OrderFactColumns {
+
+    // Bounds the per-worker accumulators of a query
+    static final int MAX_GROUPS = 1 << 16;
+    private static final int MIN_CHUNK_ROWS = 1 << 14;
+    private static final String NONE = "-";
+
+    private final Map<Long, Integer> rowById = new HashMap<>();
+    private final Dictionary[] dictionaries = new Dictionary[OrderFacts.Dimension.values().length];
+    private ZoneId zone;
+    private int size;
+
+    private long[] ids;
+    private long[] versions;
+    private long[] createdAt; // Epoch millis
+    private long[] cents;
+    private int[] items;
+    // One code column per dimension, indexed by Dimension.ordinal()
+    private int[][] codes;
+
+    OrderFactColumns(ZoneId zone, int initialCapacity) {
+        this.zone = zone;
+        int capacity = Math.max(16, initialCapacity);
+        ids = new long[capacity];
+        versions = new long[capacity];
+        createdAt = new long[capacity];
+        cents = new long[capacity];
+        items = new int[capacity];
+        codes = new int[OrderFacts.Dimension.values().length][capacity];
+        for (OrderFacts.Dimension dimension : OrderFacts.Dimension.values()) {
+            if (dimension.dictionaryEncoded()) {
+                dictionaries[dimension.ordinal()] = new Dictionary();
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    ZoneId zone() {
+        return zone;
+    }
+
+    /** Adds the order, or overwrites it unless the stored version is newer. */
+    void upsert(OrderFacts.Fact fact) {
+        Integer existing = rowById.get(fact.id());
+        int row;
+        if (existing != null) {
+            row = existing;
+            if (versions[row] > fact.version()) {
+                return;
+            }
+        } else {
+            if (size == ids.length) {
+                grow();
+            }
+            row = size++;
+            rowById.put(fact.id(), row);
+        }
+        ids[row] = fact.id();
+        versions[row] = fact.version();
+        createdAt[row] = fact.createdAt().toEpochMilli();
+        cents[row] = fact.cents();
+        items[row] = fact.items();
+        setCode(OrderFacts.Dimension.STATUS, row, fact.status());
+        setCode(OrderFacts.Dimension.ORDER_TYPE, row, fact.orderType());
+        setCode(OrderFacts.Dimension.PAYMENT_METHOD, row, fact.paymentMethod());
+        setCode(OrderFacts.Dimension.PAYMENT_STATUS, row, fact.paymentStatus());
+        setCode(OrderFacts.Dimension.TABLE, row, fact.tableNumber());
+        setLocalTime(row);
+    }
+
+    /** Recomputes the local hour and weekday columns for a new restaurant timezone. */
+    void rezone(ZoneId newZone) {
+        zone = newZone;
+        for (int row = 0; row < size; row++) {
+            setLocalTime(row);
+        }
+    }
+
+    private void setCode(OrderFacts.Dimension dimension, int row, String value) {
+        codes[dimension.ordinal()][row] = dictionaries[dimension.ordinal()].encode(value != null ? value : NONE);
+    }
+
+    private void setLocalTime(int row) {
+        ZonedDateTime local = Instant.ofEpochMilli(createdAt[row]).atZone(zone);
+        codes[OrderFacts.Dimension.HOUR.ordinal()][row] = local.getHour();
+        codes[OrderFacts.Dimension.DAY_OF_WEEK.ordinal()][row] = local.getDayOfWeek().ordinal();
+    }
+
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        versions = Arrays.copyOf(versions, capacity);
+        createdAt = Arrays.copyOf(createdAt, capacity);
+        cents = Arrays.copyOf(cents, capacity);
+        items = Arrays.copyOf(items, capacity);
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = Arrays.copyOf(codes[i], capacity);
+        }
+    }
+
+    int cardinality(OrderFacts.Dimension dimension) {
+        return switch (dimension) {
+            case HOUR -> 24;
+            case DAY_OF_WEEK -> 7;
+            default -> dictionaries[dimension.ordinal()].size();
+        };
+    }
+
+    /** Code of a filter value, or -1 when no row can have it. */
+    int codeOf(OrderFacts.Dimension dimension, String value) {
+        try {
+            return switch (dimension) {
+                case HOUR -> {
+                    int hour = Integer.parseInt(value);
+                    yield hour >= 0 && hour < 24 ? hour : -1;
+                }
+                case DAY_OF_WEEK -> DayOfWeek.valueOf(value.toUpperCase()).ordinal();
+                default -> dictionaries[dimension.ordinal()].lookup(value);
+            };
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    String valueOf(OrderFacts.Dimension dimension, int code) {
+        return switch (dimension) {
+            case HOUR -> String.valueOf(code);
+            case DAY_OF_WEEK -> DayOfWeek.values()[code].name();
+            default -> dictionaries[dimension.ordinal()].decode(code);
+        };
+    }
+
+    /**
+     * Order count, revenue (cents) and item quantity per group of the
+     * {@code groupBy} dimensions, over rows created in [from, to) whose codes
+     * are allowed by {@code masks} (null mask: any value).
+     */
+    Totals aggregate(List<OrderFacts.Dimension> groupBy, long from, long to, boolean[][] masks) {
+        int dimensions = groupBy.size();
+        int[][] keyColumns = new int[dimensions][];
+        int[] strides = new int[dimensions];
+        long groups = 1;
+        for (int d = dimensions - 1; d >= 0; d--) {
+            keyColumns[d] = codes[groupBy.get(d).ordinal()];
+            strides[d] = (int) groups;
+            groups *= Math.max(1, cardinality(groupBy.get(d)));
+            if (groups > MAX_GROUPS) {
+                throw new IllegalArgumentException("Too many groups; group by fewer or coarser dimensions");
+            }
+        }
+        int[][] filterColumns = new int[masks.length][];
+        for (int i = 0; i < masks.length; i++) {
+            filterColumns[i] = masks[i] != null ? codes[i] : null;
+        }
+
+        int rows = size;
+        int chunks = Math.max(1, Math.min(rows / MIN_CHUNK_ROWS, Runtime.getRuntime().availableProcessors() * 4));
+        int groupCount = (int) groups;
+        return IntStream.range(0, chunks).parallel()
+                .mapToObj(chunk -> {
+                    Totals totals = new Totals(groupCount);
+                    int start = (int) ((long) rows * chunk / chunks);
+                    int end = (int) ((long) rows * (chunk + 1) / chunks);
+                    scan(start, end, from, to, masks, filterColumns, keyColumns, strides, totals);
+                    return totals;
+                })
+                .reduce(Totals::add)
+                .orElseGet(() -> new Totals(groupCount));
+    }
+
+    private void scan(int start, int end, long from, long to, boolean[][] masks, int[][] filterColumns,
+            int[][] keyColumns, int[] strides, Totals totals) {
+        rows:
+        for (int row = start; row < end; row++) {
+            long created = createdAt[row];
+            if (created < from || created >= to) {
+                continue;
+            }
+            for (int f = 0; f < filterColumns.length; f++) {
+                if (filterColumns[f] != null && !masks[f][filterColumns[f][row]]) {
+                    continue rows;
+                }
+            }
+            int key = 0;
+            for (int d = 0; d < keyColumns.length; d++) {
+                key += keyColumns[d][row] * strides[d];
+            }
+            totals.orders[key]++;
+            totals.cents[key] += cents[row];
+            totals.items[key] += items[row];
+        }
+    }
+
+    static final class Totals {
+        final long[] orders;
+        final long[] cents;
+        final long[] items;
+
+        Totals(int groups) {
+            orders = new long[groups];
+            cents = new long[groups];
+            items = new long[groups];
+        }
+
+        Totals add(Totals other) {
+            for (int i = 0; i < orders.length; i++) {
+                orders[i] += other.orders[i];
+                cents[i] += other.cents[i];
+                items[i] += other.items[i];
+            }
+            return this;
+        }
+    }
+
+    private static final class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int encode(String value) {
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                values.add(value);
+                codes.put(value, code);
+            }
+            return code;
+        }
+
+        int lookup(String value) {
+            return codes.getOrDefault(value, -1);
+        }
+
+        String decode(int code) {
+            return values.get(code);
+        }
+
+        int size() {
+            return values.size();
+        }
+    }
+}
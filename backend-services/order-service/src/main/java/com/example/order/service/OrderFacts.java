@@ -0,0 +1,320 @@
+package com.example.order.service;
+
+import com.example.order.entity.Order;
+import com.example.order.entity.OrderItem;
+import com.example.order.repository.OrderRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Ad-hoc slicing of order history (hour of day x order type x payment
+ * method x table, ...) without a SQL scan per question.
+ *
+ * Keeps the orders of the retention window in memory as
+ * {@link OrderFactColumns}: loaded at startup, updated from
+ * {@link OrderChangedEvent}s after each commit and reloaded periodically to
+ * pick up orders written by other replicas.
+ */
+@Component
+public class OrderFacts {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderFacts.class);
+
+    public enum Dimension {
+        HOUR("hour", false),
+        DAY_OF_WEEK("dayOfWeek", false),
+        STATUS("status", true),
+        ORDER_TYPE("orderType", true),
+        PAYMENT_METHOD("paymentMethod", true),
+        PAYMENT_STATUS("paymentStatus", true),
+        TABLE("table", true);
+
+        private final String parameter;
+        private final boolean dictionaryEncoded;
+
+        Dimension(String parameter, boolean dictionaryEncoded) {
+            this.parameter = parameter;
+            this.dictionaryEncoded = dictionaryEncoded;
+        }
+
+        public String parameter() {
+            return parameter;
+        }
+
+        boolean dictionaryEncoded() {
+            return dictionaryEncoded;
+        }
+
+        public static Dimension of(String parameter) {
+            for (Dimension dimension : values()) {
+                if (dimension.parameter.equalsIgnoreCase(parameter.trim())) {
+                    return dimension;
+                }
+            }
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown dimension: " + parameter);
+        }
+    }
+
+    /** What to group by and which orders to count; {@code from}/{@code to} may be null (open range). */
+    public record Slice(List<Dimension> groupBy, Instant from, Instant to, Map<Dimension, List<String>> filters) {
+    }
+
+    public record Group(Map<String, String> key, long orders, BigDecimal revenue, long items) {
+    }
+
+    /** One order as stored in the columns. */
+    record Fact(long id, long version, Instant createdAt, String status, String orderType, String paymentMethod,
+            String paymentStatus, String tableNumber, long cents, int items) {
+
+        static Fact of(Order order) {
+            int quantity = 0;
+            if (order.getItems() != null) {
+                for (OrderItem item : order.getItems()) {
+                    quantity += item.getQuantity() != null ? item.getQuantity() : 0;
+                }
+            }
+            return new Fact(order.getId(), order.getVersion() != null ? order.getVersion() : 0,
+                    order.getCreatedAt() != null ? order.getCreatedAt() : Instant.EPOCH, order.getStatus(),
+                    nameOf(order.getOrderType()), nameOf(order.getPaymentMethod()),
+                    nameOf(order.getPaymentStatus()), order.getTableNumber(), centsOf(order.getTotalPrice()),
+                    quantity);
+        }
+    }
+
+    private final OrderRepository orderRepository;
+    private final RestaurantSettingsRegistry settingsRegistry;
+    private final TransactionTemplate readTemplate;
+    private final int retentionDays;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock loadLock = new ReentrantLock();
+
+    // Guarded by lock
+    private OrderFactColumns columns;
+    // Changes committed while a load is reading; replayed onto the loaded columns
+    private List<Fact> replay;
+
+    public OrderFacts(OrderRepository orderRepository, RestaurantSettingsRegistry settingsRegistry,
+            PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+            @Value("${app.order-facts.retention-days:400}") int retentionDays) {
+        this.orderRepository = orderRepository;
+        this.settingsRegistry = settingsRegistry;
+        this.readTemplate = new TransactionTemplate(transactionManager);
+        this.readTemplate.setReadOnly(true);
+        this.retentionDays = retentionDays;
+        Gauge.builder("order.facts.rows", this, OrderFacts::size).register(meterRegistry);
+    }
+
+    public List<Group> query(Slice slice) {
+        ensureLoaded();
+        ZoneId zone = settingsRegistry.zone();
+        lock.readLock().lock();
+        if (!zone.equals(columns.zone())) {
+            // Restaurant timezone changed: recompute hour and weekday, then downgrade to a read lock
+            lock.readLock().unlock();
+            lock.writeLock().lock();
+            try {
+                if (!zone.equals(columns.zone())) {
+                    columns.rezone(zone);
+                }
+                lock.readLock().lock();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        try {
+            boolean[][] masks = new boolean[Dimension.values().length][];
+            slice.filters().forEach((dimension, values) -> {
+                boolean[] mask = new boolean[Math.max(1, columns.cardinality(dimension))];
+                for (String value : values) {
+                    int code = columns.codeOf(dimension, value.trim());
+                    if (code >= 0) {
+                        mask[code] = true;
+                    }
+                }
+                masks[dimension.ordinal()] = mask;
+            });
+            long from = slice.from() != null ? slice.from().toEpochMilli() : Long.MIN_VALUE;
+            long to = slice.to() != null ? slice.to().toEpochMilli() : Long.MAX_VALUE;
+
+            OrderFactColumns.Totals totals;
+            try {
+                totals = columns.aggregate(slice.groupBy(), from, to, masks);
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+            }
+            return toGroups(slice.groupBy(), totals);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Group> toGroups(List<Dimension> groupBy, OrderFactColumns.Totals totals) {
+        List<Group> groups = new ArrayList<>();
+        for (int key = 0; key < totals.orders.length; key++) {
+            if (totals.orders[key] == 0) {
+                continue;
+            }
+            String[] decoded = new String[groupBy.size()];
+            int remainder = key;
+            for (int d = groupBy.size() - 1; d >= 0; d--) {
+                int cardinality = columns.cardinality(groupBy.get(d));
+                decoded[d] = columns.valueOf(groupBy.get(d), remainder % cardinality);
+                remainder /= cardinality;
+            }
+            Map<String, String> values = new LinkedHashMap<>();
+            for (int d = 0; d < decoded.length; d++) {
+                values.put(groupBy.get(d).parameter(), decoded[d]);
+            }
+            groups.add(new Group(values, totals.orders[key], BigDecimal.valueOf(totals.cents[key], 2),
+                    totals.items[key]));
+        }
+        return groups;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOrderChanged(OrderChangedEvent event) {
+        Fact fact = Fact.of(event.order());
+        if (fact.createdAt().isBefore(cutoff())) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (columns != null) {
+                columns.upsert(fact);
+            }
+            if (replay != null) {
+                replay.add(fact);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        load();
+    }
+
+    @Scheduled(initialDelayString = "${app.order-facts.reload-interval-ms:600000}",
+            fixedDelayString = "${app.order-facts.reload-interval-ms:600000}")
+    public void reload() {
+        load();
+    }
+
+    private void ensureLoaded() {
+        lock.readLock().lock();
+        try {
+            if (columns != null) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        load();
+    }
+
+    /** Rebuilds the columns off-lock and swaps them in; queries keep using the old ones meanwhile. */
+    private void load() {
+        loadLock.lock();
+        try {
+            lock.writeLock().lock();
+            try {
+                replay = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            long started = System.nanoTime();
+            OrderFactColumns loaded;
+            try {
+                loaded = readTemplate.execute(status -> read());
+            } catch (RuntimeException e) {
+                lock.writeLock().lock();
+                try {
+                    replay = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                throw e;
+            }
+
+            lock.writeLock().lock();
+            try {
+                replay.forEach(loaded::upsert);
+                replay = null;
+                columns = loaded;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Loaded {} order facts in {} ms", loaded.size(),
+                    (System.nanoTime() - started) / 1_000_000);
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    private OrderFactColumns read() {
+        OrderFactColumns loaded = new OrderFactColumns(settingsRegistry.zone(), size());
+        try (Stream<Object[]> rows = orderRepository.streamFactsSince(cutoff())) {
+            rows.forEach(row -> loaded.upsert(new Fact(
+                    (Long) row[0],
+                    row[1] != null ? (Long) row[1] : 0,
+                    row[2] != null ? (Instant) row[2] : Instant.EPOCH,
+                    (String) row[3],
+                    nameOf((Enum<?>) row[4]),
+                    nameOf((Enum<?>) row[5]),
+                    nameOf((Enum<?>) row[6]),
+                    (String) row[7],
+                    centsOf((BigDecimal) row[8]),
+                    row[9] != null ? ((Number) row[9]).intValue() : 0)));
+        }
+        return loaded;
+    }
+
+    private Instant cutoff() {
+        return Instant.now().minus(retentionDays, ChronoUnit.DAYS);
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return columns != null ? columns.size() : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static String nameOf(Enum<?> value) {
+        return value != null ? value.name() : null;
+    }
+
+    private static long centsOf(BigDecimal amount) {
+        return amount != null ? amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue() : 0;
+    }
+}
@@ -0,0 +1,246 @@
+package com.example.order.service;
+
+import com.example.order.entity.Order;
+import com.example.order.entity.OrderItem;
+import com.example.order.repository.OrderRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Group-commit intake for new orders (app.order-intake.mode=group-commit).
+ *
+ * Request threads validate and price the order, then hand it to a bounded
+ * queue. A single writer thread commits up to {@code max-batch} orders per
+ * transaction, waiting at most {@code max-wait-ms} to fill a batch, so a rush
+ * of orders shares one commit fsync instead of paying one each. When the
+ * queue is full, or an order is still queued after {@code submit-timeout-ms},
+ * callers are rejected with 503 + Retry-After.
+ */
+@Component
+public class OrderIntakePipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderIntakePipeline.class);
+
+    private final OrderRepository orderRepository;
+    private final OrderEventOutbox orderEventOutbox;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final BlockingQueue<PendingOrder> queue;
+    private final int maxBatch;
+    private final long maxWaitNanos;
+    private final long submitTimeoutMs;
+    private final long retryAfterSeconds;
+
+    private final DistributionSummary batchSizes;
+    private final Counter rejected;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public OrderIntakePipeline(OrderRepository orderRepository, OrderEventOutbox orderEventOutbox,
+            ApplicationEventPublisher eventPublisher, PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+            @Value("${app.order-intake.mode:direct}") String mode,
+            @Value("${app.order-intake.capacity:1000}") int capacity,
+            @Value("${app.order-intake.max-batch:50}") int maxBatch,
+            @Value("${app.order-intake.max-wait-ms:5}") long maxWaitMs,
+            @Value("${app.order-intake.submit-timeout-ms:1000}") long submitTimeoutMs,
+            @Value("${app.order-intake.retry-after-seconds:1}") long retryAfterSeconds) {
+        this.orderRepository = orderRepository;
+        this.orderEventOutbox = orderEventOutbox;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = "group-commit".equals(mode);
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.maxBatch = maxBatch;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        this.submitTimeoutMs = submitTimeoutMs;
+        this.retryAfterSeconds = retryAfterSeconds;
+
+        this.batchSizes = DistributionSummary.builder("order.intake.batch.size").register(meterRegistry);
+        this.rejected = Counter.builder("order.intake.rejected").register(meterRegistry);
+        meterRegistry.gaugeCollectionSize("order.intake.queue.depth", Tags.empty(), queue);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues a validated, priced order and blocks until the writer has
+     * committed it. Returns the saved order with its assigned ID.
+     */
+    public Order submit(Order order) {
+        PendingOrder pending = new PendingOrder(order, new CompletableFuture<>());
+        if (!running || !queue.offer(pending)) {
+            rejected.increment();
+            throw new IntakeSaturatedException(retryAfterSeconds);
+        }
+        try {
+            return pending.result().get(submitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            return awaitOrWithdraw(pending);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for order commit", e);
+        }
+    }
+
+    /**
+     * Submit timed out. An order still in the queue is taken back, so the 503
+     * is final and a retry with the same Idempotency-Key cannot create a second
+     * order. One the writer has already picked up is part of a commit in
+     * progress, so its outcome is waited for instead.
+     */
+    private Order awaitOrWithdraw(PendingOrder pending) {
+        if (queue.remove(pending)) {
+            rejected.increment();
+            throw new IntakeSaturatedException(retryAfterSeconds);
+        }
+        try {
+            return pending.result().get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for order commit", e);
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::writeLoop, "order-intake-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    private void writeLoop() {
+        List<PendingOrder> batch = new ArrayList<>(maxBatch);
+        // Keep draining after stop() so already accepted orders are not dropped
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingOrder first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (batch.size() < maxBatch) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingOrder next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Order intake writer failed", e);
+                batch.forEach(pending -> pending.result().completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<PendingOrder> batch) {
+        batchSizes.record(batch.size());
+        try {
+            List<Order> saved = transactionTemplate.execute(status -> {
+                List<Order> result = new ArrayList<>(batch.size());
+                for (PendingOrder pending : batch) {
+                    result.add(persist(pending.order()));
+                }
+                return result;
+            });
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result().complete(saved.get(i));
+            }
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).result().completeExceptionally(e);
+                return;
+            }
+            // One bad order must not fail its batch-mates: retry each on its own
+            for (PendingOrder pending : batch) {
+                resetIdentifiers(pending.order());
+                try {
+                    pending.result().complete(transactionTemplate.execute(status -> persist(pending.order())));
+                } catch (RuntimeException single) {
+                    pending.result().completeExceptionally(single);
+                }
+            }
+        }
+    }
+
+    private Order persist(Order order) {
+        Order saved = orderRepository.save(order);
+        orderEventOutbox.append(saved);
+        eventPublisher.publishEvent(OrderChangedEvent.of(saved));
+        return saved;
+    }
+
+    // IDs, version and the Hibernate collection wrapper come from the rolled-back
+    // persist; reset them so the order is transient again
+    private static void resetIdentifiers(Order order) {
+        order.setId(null);
+        order.setVersion(null);
+        // Rolled back, so nothing was counted in the rollups or top sellers after all
+        order.setRolledUpTotalPrice(null);
+        order.setRolledUpPaymentStatus(null);
+        if (order.getItems() != null) {
+            List<OrderItem> items = new ArrayList<>(order.getItems());
+            items.forEach(item -> {
+                item.setId(null);
+                item.setTallied(false);
+            });
+            order.setItems(items);
+        }
+    }
+
+    private record PendingOrder(Order order, CompletableFuture<Order> result) {
+    }
+}
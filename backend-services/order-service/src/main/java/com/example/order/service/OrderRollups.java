@@ -0,0 +1,338 @@
+package com.example.order.service;
+
+import com.example.order.entity.Order;
+import com.example.order.entity.OrderDailyRollup;
+import com.example.order.entity.OrderHourlyRollup;
+import com.example.order.entity.OrderHourlyRollupId;
+import com.example.order.entity.OrderRollupDelta;
+import com.example.order.entity.OrderRollupState;
+import com.example.order.entity.PaymentStatus;
+import com.example.order.repository.OrderDailyRollupRepository;
+import com.example.order.repository.OrderHourlyRollupRepository;
+import com.example.order.repository.OrderRollupDeltaRepository;
+import com.example.order.repository.OrderRollupStateRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+/**
+ * Maintains the order rollups the analytics endpoints read: count and revenue
+ * per UTC hour, order type and payment status, and per restaurant-local day.
+ *
+ * Every order write is seen through {@link OrderChangedEvent} inside its own
+ * transaction and appends what it changed as {@link OrderRollupDelta} rows,
+ * which commit or roll back with the order. Only the difference from the
+ * values last counted is recorded, which makes repeated saves of an unchanged
+ * order free. The rollup rows are not touched on the write path: committed
+ * deltas are folded into them every {@code app.rollups.fold-interval-ms} by
+ * one replica at a time (see {@link #fold()}), so concurrent order writes
+ * never queue on a shared counter row and analytics trail them by about that
+ * interval.
+ *
+ * Day buckets depend on the restaurant timezone. The fold buckets days in the
+ * zone stored in {@link OrderRollupState}, not in its own settings snapshot,
+ * so replicas always agree. A timezone change rebuilds the buckets from the
+ * orders table (see {@link #rebuild(ZoneId, boolean)}); order writes do not
+ * wait for it and analytics keep reading the previous buckets until it commits.
+ */
+@Component
+public class OrderRollups {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderRollups.class);
+
+    // IDs per DELETE ... IN statement when dropping deltas a rebuild has absorbed
+    private static final int DELETE_CHUNK = 1000;
+
+    private final OrderHourlyRollupRepository rollupRepository;
+    private final OrderDailyRollupRepository dailyRollupRepository;
+    private final OrderRollupDeltaRepository deltaRepository;
+    private final OrderRollupStateRepository stateRepository;
+    private final RestaurantSettingsRegistry settingsRegistry;
+    private final TransactionTemplate transactionTemplate;
+    private final int foldBatchSize;
+    // Rebuilds after a timezone change run here, one at a time, never on a request thread
+    private final ExecutorService rebuilder = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "order-rollup-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public OrderRollups(OrderHourlyRollupRepository rollupRepository,
+            OrderDailyRollupRepository dailyRollupRepository, OrderRollupDeltaRepository deltaRepository,
+            OrderRollupStateRepository stateRepository, RestaurantSettingsRegistry settingsRegistry,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.rollups.fold-batch-size:500}") int foldBatchSize) {
+        this.rollupRepository = rollupRepository;
+        this.dailyRollupRepository = dailyRollupRepository;
+        this.deltaRepository = deltaRepository;
+        this.stateRepository = stateRepository;
+        this.settingsRegistry = settingsRegistry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Own transaction: a rebuild can be triggered from another transaction's afterCommit
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.foldBatchSize = foldBatchSize;
+    }
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onOrderChanged(OrderChangedEvent event) {
+        Order order = event.order();
+        Instant createdAt = order.getCreatedAt() != null ? order.getCreatedAt() : Instant.EPOCH;
+        String orderType = order.getOrderType() != null ? order.getOrderType().name() : "UNKNOWN";
+        String paymentStatus = nameOf(order.getPaymentStatus());
+        BigDecimal total = orZero(order.getTotalPrice());
+        boolean counted = order.getRolledUpTotalPrice() != null || order.getRolledUpPaymentStatus() != null;
+        BigDecimal countedTotal = orZero(order.getRolledUpTotalPrice());
+
+        if (counted && nameOf(order.getRolledUpPaymentStatus()).equals(paymentStatus)) {
+            append(createdAt, orderType, paymentStatus, 0, total.subtract(countedTotal));
+        } else {
+            if (counted) {
+                // Take back what was counted before, under the status it was counted with
+                append(createdAt, orderType, nameOf(order.getRolledUpPaymentStatus()), -1, countedTotal.negate());
+            }
+            append(createdAt, orderType, paymentStatus, 1, total);
+        }
+
+        order.setRolledUpTotalPrice(total);
+        order.setRolledUpPaymentStatus(order.getPaymentStatus());
+    }
+
+    // A plain insert, batched with the order's own
+    private void append(Instant createdAt, String orderType, String paymentStatus, long count, BigDecimal revenue) {
+        if (count == 0 && revenue.signum() == 0) {
+            return;
+        }
+        OrderRollupDelta delta = new OrderRollupDelta();
+        delta.setCreatedAt(createdAt);
+        delta.setOrderType(orderType);
+        delta.setPaymentStatus(paymentStatus);
+        delta.setOrderCount(count);
+        delta.setRevenue(revenue);
+        deltaRepository.save(delta);
+    }
+
+    /**
+     * Folds committed deltas into the hourly and daily rollups, oldest first,
+     * one batch per transaction until none are left. Every replica runs it;
+     * whichever holds the state row does the work and the others skip the
+     * round.
+     */
+    @Scheduled(initialDelayString = "${app.rollups.fold-interval-ms:1000}",
+            fixedDelayString = "${app.rollups.fold-interval-ms:1000}")
+    public void fold() {
+        Integer folded;
+        do {
+            folded = transactionTemplate.execute(status -> foldBatch());
+        } while (folded != null && folded == foldBatchSize);
+    }
+
+    private int foldBatch() {
+        OrderRollupState state = stateRepository.tryLock().orElse(null);
+        if (state == null) {
+            return 0;
+        }
+        ZoneId zone = ZoneId.of(state.getDayZone());
+        List<OrderRollupDelta> deltas = deltaRepository.findOldest(PageRequest.of(0, foldBatchSize));
+        Map<OrderHourlyRollupId, Delta> hourly = new HashMap<>();
+        Map<LocalDate, Delta> daily = new HashMap<>();
+        for (OrderRollupDelta delta : deltas) {
+            OrderHourlyRollupId key = new OrderHourlyRollupId(bucketOf(delta.getCreatedAt()), delta.getOrderType(),
+                    delta.getPaymentStatus());
+            Delta change = new Delta(delta.getOrderCount(), delta.getRevenue());
+            hourly.merge(key, change, Delta::plus);
+            daily.merge(dayOf(delta.getCreatedAt(), zone), change, Delta::plus);
+        }
+        hourly.forEach((key, delta) -> {
+            if (!delta.isZero()) {
+                rollupRepository.increment(key.getBucketHour(), key.getOrderType(), key.getPaymentStatus(),
+                        delta.count(), delta.revenue());
+            }
+        });
+        daily.forEach((day, delta) -> {
+            if (!delta.isZero()) {
+                dailyRollupRepository.increment(day, delta.count(), delta.revenue());
+            }
+        });
+        deltaRepository.deleteAllByIdInBatch(deltas.stream().map(OrderRollupDelta::getId).toList());
+        return deltas.size();
+    }
+
+    /** Hourly buckets from {@code from}'s hour on; deltas not folded yet are not included. */
+    public List<OrderHourlyRollup> since(Instant from) {
+        return rollupRepository.findSince(bucketOf(from));
+    }
+
+    /**
+     * The last {@code days} restaurant-local days, today included, oldest
+     * first; days without orders are absent. "Today" is taken in the zone the
+     * buckets were built for, read in the same snapshot as the buckets.
+     */
+    @Transactional(readOnly = true)
+    public List<OrderDailyRollup> lastDays(int days) {
+        LocalDate from = LocalDate.now(dayZone()).minusDays(days - 1L);
+        return dailyRollupRepository.findSince(from);
+    }
+
+    /**
+     * Zone of the day buckets {@link #lastDays(int)} returns. It trails the
+     * TIMEZONE setting while a rebuild for a new zone is running.
+     */
+    public ZoneId dayZone() {
+        return stateRepository.findById(OrderRollupState.ID)
+                .map(state -> ZoneId.of(state.getDayZone()))
+                .orElseGet(settingsRegistry::zone);
+    }
+
+    /**
+     * Fills the rollups from existing orders the first time the service starts
+     * with an empty table, and catches up with a timezone change a previous
+     * instance did not finish rebuilding for.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        ZoneId zone = settingsRegistry.zone();
+        transactionTemplate.execute(status -> stateRepository.createIfAbsent(zone.getId()));
+        if (rollupRepository.count() == 0) {
+            rebuild(zone, true);
+        } else if (!dayZone().equals(zone)) {
+            rebuildLater(zone);
+        }
+    }
+
+    /** Local days move when the restaurant timezone does, so build them again under the new one. */
+    @EventListener
+    public void onSettingsChanged(RestaurantSettingsChangedEvent event) {
+        if (RestaurantSettingsRegistry.TIMEZONE.equals(event.settingKey())) {
+            rebuildLater(settingsRegistry.zone());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        rebuilder.shutdownNow();
+    }
+
+    /**
+     * Repair after manual data fixes: recomputes every bucket from the orders
+     * table. Order writes carry on meanwhile and are counted exactly once.
+     * Returns the number of buckets built.
+     */
+    public int backfill() {
+        return rebuild(settingsRegistry.zone(), true);
+    }
+
+    private void rebuildLater(ZoneId zone) {
+        rebuilder.execute(() -> {
+            try {
+                rebuild(zone, false);
+            } catch (RuntimeException e) {
+                // Readers keep the previous buckets; the next start retries
+                log.error("Could not rebuild order rollups for {}", zone, e);
+            }
+        });
+    }
+
+    /**
+     * Replaces the hourly buckets, and the day buckets in {@code zone}, with
+     * totals from one snapshot of the orders table, in a single transaction.
+     *
+     * <ol>
+     * <li>The state row is locked first, so no fold runs until commit; order
+     * writes are not held up.</li>
+     * <li>The snapshot is then fixed by the first consistent read: the deltas
+     * it contains describe orders it already shows, so those deltas are
+     * dropped with the old buckets. Deltas committed after it describe orders
+     * it does not show; they stay behind for the next fold.</li>
+     * <li>Readers see the old buckets and zone until commit and the new ones
+     * after it.</li>
+     * </ol>
+     *
+     * Relies on MySQL's default REPEATABLE READ isolation for the snapshot.
+     * Unless {@code always} is set, skips the work when another replica has
+     * already rebuilt for {@code zone}. Returns the number of buckets built.
+     */
+    int rebuild(ZoneId zone, boolean always) {
+        Integer buckets = transactionTemplate.execute(status -> {
+            OrderRollupState state = stateRepository.lock().orElseThrow();
+            if (!always && state.getDayZone().equals(zone.getId())) {
+                return 0;
+            }
+            List<Long> included = deltaRepository.findAllIds();
+            Map<OrderHourlyRollupId, Delta> hourly = new HashMap<>();
+            Map<LocalDate, Delta> daily = new HashMap<>();
+            try (Stream<Object[]> rows = rollupRepository.streamBucketInputs()) {
+                rows.forEach(row -> {
+                    Instant createdAt = (Instant) row[0];
+                    OrderHourlyRollupId key = new OrderHourlyRollupId(bucketOf(createdAt),
+                            row[1] != null ? row[1].toString() : "UNKNOWN", nameOf((PaymentStatus) row[2]));
+                    Delta order = new Delta(1, orZero((BigDecimal) row[3]));
+                    hourly.merge(key, order, Delta::plus);
+                    daily.merge(dayOf(createdAt, zone), order, Delta::plus);
+                });
+            }
+            rollupRepository.deleteAllRollups();
+            dailyRollupRepository.deleteAllRollups();
+            hourly.forEach((key, delta) -> rollupRepository.increment(key.getBucketHour(),
+                    key.getOrderType(), key.getPaymentStatus(), delta.count(), delta.revenue()));
+            daily.forEach((day, delta) -> dailyRollupRepository.increment(day, delta.count(), delta.revenue()));
+            for (int from = 0; from < included.size(); from += DELETE_CHUNK) {
+                deltaRepository.deleteAllByIdInBatch(
+                        included.subList(from, Math.min(from + DELETE_CHUNK, included.size())));
+            }
+            state.setDayZone(zone.getId());
+            return hourly.size() + daily.size();
+        });
+        log.info("Rebuilt {} order rollup buckets, days in {}", buckets, zone);
+        return buckets != null ? buckets : 0;
+    }
+
+    static Instant bucketOf(Instant instant) {
+        return (instant != null ? instant : Instant.EPOCH).truncatedTo(ChronoUnit.HOURS);
+    }
+
+    private static LocalDate dayOf(Instant instant, ZoneId zone) {
+        return LocalDate.ofInstant(instant != null ? instant : Instant.EPOCH, zone);
+    }
+
+    private static String nameOf(PaymentStatus paymentStatus) {
+        return paymentStatus != null ? paymentStatus.name() : "UNKNOWN";
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+
+    private record Delta(long count, BigDecimal revenue) {
+        Delta plus(Delta other) {
+            return new Delta(count + other.count, revenue.add(other.revenue));
+        }
+
+        boolean isZero() {
+            return count == 0 && revenue.signum() == 0;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.example.order.service;
 
 import com.example.order.dto.CreateOrderRequest;
 import com.example.order.dto.OrderItemRequest;
+import com.example.order.dto.OrderSummary;
 import com.example.order.entity.Menu;
 import com.example.order.entity.Order;
 import com.example.order.entity.OrderItem;
@@ -17,22 +18,50 @@ import java.util.List;
 @Service
 public class OrderService {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+
     private final MenuRepository menuRepository;
     private final OrderRepository orderRepository;
     private final com.example.order.repository.CategoryRepository categoryRepository;
-    private final org.springframework.amqp.rabbit.core.RabbitTemplate rabbitTemplate;
+    private final OrderEventOutbox orderEventOutbox;
+    private final MenuCatalog menuCatalog;
+    private final OptimisticRetry optimisticRetry;
+    private final OrderIntakePipeline orderIntakePipeline;
+    private final ActiveOrderBoard activeOrderBoard;
+    private final RestaurantSettingsRegistry settingsRegistry;
+    private final org.springframework.context.ApplicationEventPublisher eventPublisher;
+    private final org.springframework.transaction.support.TransactionTemplate transactionTemplate;
 
     public OrderService(MenuRepository menuRepository, OrderRepository orderRepository,
             com.example.order.repository.CategoryRepository categoryRepository,
-            org.springframework.amqp.rabbit.core.RabbitTemplate rabbitTemplate) {
+            OrderEventOutbox orderEventOutbox,
+            MenuCatalog menuCatalog, OptimisticRetry optimisticRetry,
+            OrderIntakePipeline orderIntakePipeline, ActiveOrderBoard activeOrderBoard,
+            RestaurantSettingsRegistry settingsRegistry,
+            org.springframework.context.ApplicationEventPublisher eventPublisher,
+            org.springframework.transaction.PlatformTransactionManager transactionManager) {
         this.menuRepository = menuRepository;
         this.orderRepository = orderRepository;
         this.categoryRepository = categoryRepository;
-        this.rabbitTemplate = rabbitTemplate;
+        this.orderEventOutbox = orderEventOutbox;
+        this.menuCatalog = menuCatalog;
+        this.optimisticRetry = optimisticRetry;
+        this.orderIntakePipeline = orderIntakePipeline;
+        this.activeOrderBoard = activeOrderBoard;
+        this.settingsRegistry = settingsRegistry;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new org.springframework.transaction.support.TransactionTemplate(
+                transactionManager);
+    }
+
+    /** The public menu list, already serialized; see {@link MenuCatalog}. */
+    public RenderedJson getMenusJson() {
+        return menuCatalog.current().menusJson();
     }
 
-    public List<Menu> getAllMenus() {
-        return menuRepository.findAll();
+    /** Categories in display order with their menus nested, already serialized. */
+    public RenderedJson getCatalogJson() {
+        return menuCatalog.current().catalogJson();
     }
 
     public List<Order> getAllOrders() {
@@ -44,10 +73,17 @@ public class OrderService {
         return orderRepository.findByUserIdOrderByCreatedAtDesc(userId);
     }
 
+    // Read from the database, not the per-replica board: a customer must see their order the moment
+    // any replica has committed it (idx_orders_user_status_created serves the lookup)
     public List<Order> getActiveOrders(String userId) {
-        List<String> statuses = List.of("PENDING", "PAID", "PREPARING", "READY");
-        return orderRepository.findByUserIdAndStatusIn(userId, statuses, org.springframework.data.domain.Sort
-                .by(org.springframework.data.domain.Sort.Direction.DESC, "createdAt"));
+        return orderRepository.findByUserIdAndStatusIn(userId, ActiveOrderBoard.ACTIVE_STATUSES,
+                org.springframework.data.domain.Sort.by(org.springframework.data.domain.Sort.Direction.DESC,
+                        "createdAt"));
+    }
+
+    // Kitchen view: served from the in-memory board, no database round trip
+    public List<Order> getKitchenOrders(String status, String tableNumber) {
+        return activeOrderBoard.list(status, tableNumber);
     }
 
     public org.springframework.data.domain.Page<Order> getOrderHistory(String userId, int page, int size) {
@@ -58,10 +94,74 @@ public class OrderService {
         return orderRepository.findByUserIdAndStatusIn(userId, statuses, pageable);
     }
 
-    @Transactional
+    public com.example.order.dto.CursorPage<Order> getOrderHistory(String userId, String cursor, int size) {
+        size = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+        OrderCursor after = OrderCursor.decode(cursor);
+        List<Order> rows = orderRepository.findByUserIdAndStatusInAfter(userId, List.of("COMPLETED", "CANCELLED"),
+                after != null ? after.createdAt() : null, after != null ? after.id() : null,
+                org.springframework.data.domain.PageRequest.of(0, size + 1));
+        return toCursorPage(rows, size);
+    }
+
+    // Summary views (view=summary): projections straight from the query, no entities or items
+
+    public List<OrderSummary> getAllOrderSummaries() {
+        return orderRepository.findAllSummaries(org.springframework.data.domain.Sort
+                .by(org.springframework.data.domain.Sort.Direction.DESC, "createdAt"));
+    }
+
+    public List<OrderSummary> getMyOrderSummaries(String userId) {
+        return orderRepository.findSummariesByUserId(userId);
+    }
+
+    public List<OrderSummary> getActiveOrderSummaries(String userId) {
+        return orderRepository.findSummariesByUserIdAndStatusIn(userId, ActiveOrderBoard.ACTIVE_STATUSES,
+                org.springframework.data.domain.Sort.by(org.springframework.data.domain.Sort.Direction.DESC,
+                        "createdAt"));
+    }
+
+    public List<OrderSummary> getKitchenOrderSummaries(String status, String tableNumber) {
+        return activeOrderBoard.list(status, tableNumber).stream().map(OrderSummary::of).toList();
+    }
+
+    public org.springframework.data.domain.Page<OrderSummary> getOrderHistorySummaries(String userId, int page,
+            int size) {
+        org.springframework.data.domain.Pageable pageable = org.springframework.data.domain.PageRequest.of(page, size,
+                org.springframework.data.domain.Sort.by(org.springframework.data.domain.Sort.Direction.DESC,
+                        "createdAt"));
+        return orderRepository.findSummariesByUserIdAndStatusIn(userId, List.of("COMPLETED", "CANCELLED"), pageable);
+    }
+
+    public com.example.order.dto.CursorPage<OrderSummary> getOrderHistorySummaries(String userId, String cursor,
+            int size) {
+        size = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+        OrderCursor after = OrderCursor.decode(cursor);
+        List<OrderSummary> rows = orderRepository.findSummariesByUserIdAndStatusInAfter(userId,
+                List.of("COMPLETED", "CANCELLED"),
+                after != null ? after.createdAt() : null, after != null ? after.id() : null,
+                org.springframework.data.domain.PageRequest.of(0, size + 1));
+        return toCursorPage(rows, size, summary -> new OrderCursor(summary.createdAt(), summary.id()));
+    }
+
     public Order createOrder(String userId, CreateOrderRequest request) {
+        Order order = buildOrder(userId, request);
+        if (orderIntakePipeline.isEnabled()) {
+            // Group commit: the intake writer saves this order together with others
+            return orderIntakePipeline.submit(order);
+        }
+        return transactionTemplate.execute(status -> {
+            Order savedOrder = orderRepository.save(order);
+
+            // Send RabbitMQ message
+            sendOrderEvent(savedOrder);
+
+            return savedOrder;
+        });
+    }
+
+    // Validation and pricing only; no writes, so it can run outside a transaction
+    private Order buildOrder(String userId, CreateOrderRequest request) {
         Order order = new Order();
-        System.out.println("DEBUG: createOrder request paymentMethod=" + request.getPaymentMethod());
 
         // Always set Guest Token if provided (Shadow Token Strategy)
         if (request.getGuestToken() != null && !request.getGuestToken().isBlank()) {
@@ -145,8 +245,7 @@ public class OrderService {
         }
 
         for (OrderItemRequest itemRequest : request.getItems()) {
-            Menu menu = menuRepository.findById(java.util.Objects.requireNonNull(itemRequest.getMenuId()))
-                    .orElseThrow(() -> new RuntimeException("Menu not found: " + itemRequest.getMenuId()));
+            Menu menu = menuCatalog.getMenu(java.util.Objects.requireNonNull(itemRequest.getMenuId()));
 
             OrderItem orderItem = new OrderItem();
             orderItem.setOrder(order);
@@ -166,16 +265,15 @@ public class OrderService {
         order.setItems(orderItems);
         order.setTotalPrice(totalPrice);
 
-        Order savedOrder = orderRepository.save(order);
-
-        // Send RabbitMQ message
-        sendOrderEvent(savedOrder);
-
-        return savedOrder;
+        return order;
     }
 
-    @Transactional
     public Order addItems(Long orderId, String userId, String guestToken, List<OrderItemRequest> itemRequests) {
+        return optimisticRetry.inTransaction("addItems",
+                () -> applyAddItems(orderId, userId, guestToken, itemRequests));
+    }
+
+    private Order applyAddItems(Long orderId, String userId, String guestToken, List<OrderItemRequest> itemRequests) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new org.springframework.web.server.ResponseStatusException(
                         org.springframework.http.HttpStatus.NOT_FOUND, "Order not found: " + orderId));
@@ -211,8 +309,7 @@ public class OrderService {
         List<OrderItem> existingItems = order.getItems();
 
         for (OrderItemRequest itemRequest : itemRequests) {
-            Menu menu = menuRepository.findById(java.util.Objects.requireNonNull(itemRequest.getMenuId()))
-                    .orElseThrow(() -> new RuntimeException("Menu not found: " + itemRequest.getMenuId()));
+            Menu menu = menuCatalog.getMenu(java.util.Objects.requireNonNull(itemRequest.getMenuId()));
 
             OrderItem orderItem = new OrderItem();
             orderItem.setOrder(order);
@@ -263,8 +360,12 @@ public class OrderService {
         return order;
     }
 
-    @Transactional
     public Order payOrder(Long orderId) {
+        return optimisticRetry.inTransaction("payOrder",
+                () -> applyPayOrder(orderId));
+    }
+
+    private Order applyPayOrder(Long orderId) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found: " + orderId));
         order.setStatus("PAID");
@@ -273,8 +374,12 @@ public class OrderService {
         return savedOrder;
     }
 
-    @Transactional
     public Order updateStatus(Long orderId, String newStatus) {
+        return optimisticRetry.inTransaction("updateStatus",
+                () -> applyUpdateStatus(orderId, newStatus));
+    }
+
+    private Order applyUpdateStatus(Long orderId, String newStatus) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found: " + orderId));
         order.setStatus(newStatus);
@@ -287,33 +392,16 @@ public class OrderService {
     }
 
     private void sendOrderEvent(Order order) {
-        // Fix for Race Condition: Ensure DB commit happens before Event consumes by
-        // Frontend
-        if (org.springframework.transaction.support.TransactionSynchronizationManager.isActualTransactionActive()) {
-            org.springframework.transaction.support.TransactionSynchronizationManager.registerSynchronization(
-                    new org.springframework.transaction.support.TransactionSynchronization() {
-                        @Override
-                        public void afterCommit() {
-                            doSendOrderEvent(order);
-                        }
-                    });
-        } else {
-            doSendOrderEvent(order);
-        }
+        // Transactional outbox: the event commits (or rolls back) together with the
+        // order and OutboxRelay publishes it, so the consumer never sees an event
+        // before the order is visible and broker outages no longer drop events.
+        orderEventOutbox.append(order);
+        orderChanged(order);
     }
 
-    private void doSendOrderEvent(Order order) {
-        try {
-            java.util.Map<String, Object> event = new java.util.HashMap<>();
-            event.put("orderId", order.getId());
-            event.put("userId", order.getUserId());
-            event.put("status", order.getStatus());
-            event.put("totalPrice", order.getTotalPrice());
-            rabbitTemplate.convertAndSend(com.example.order.config.RabbitConfig.EXCHANGE_NAME,
-                    com.example.order.config.RabbitConfig.ROUTING_KEY, event);
-        } catch (Exception e) {
-            System.err.println("Failed to send RabbitMQ message: " + e.getMessage());
-        }
+    // Rollups and the best-sellers tally follow in this transaction, in-memory views after commit
+    private void orderChanged(Order order) {
+        eventPublisher.publishEvent(OrderChangedEvent.of(order));
     }
 
     @Transactional
@@ -323,7 +411,9 @@ public class OrderService {
                     .orElseThrow(() -> new RuntimeException("Category not found: " + menu.getCategoryId()));
             menu.setCategory(category);
         }
-        return menuRepository.save(menu);
+        Menu savedMenu = menuRepository.save(menu);
+        menuCatalog.invalidate();
+        return savedMenu;
     }
 
     @Transactional
@@ -342,7 +432,9 @@ public class OrderService {
             menu.setCategory(category);
         }
 
-        return menuRepository.save(menu);
+        Menu savedMenu = menuRepository.save(menu);
+        menuCatalog.invalidate();
+        return savedMenu;
     }
 
     @Transactional
@@ -350,10 +442,15 @@ public class OrderService {
         Menu menu = menuRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Menu not found: " + id));
         menuRepository.delete(menu);
+        menuCatalog.invalidate();
     }
 
-    @Transactional
     public Order cancelOrder(Long orderId, String userId) {
+        return optimisticRetry.inTransaction("cancelOrder",
+                () -> applyCancelOrder(orderId, userId));
+    }
+
+    private Order applyCancelOrder(Long orderId, String userId) {
         java.util.Objects.requireNonNull(orderId, "Order ID cannot be null");
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found: " + orderId));
@@ -382,11 +479,97 @@ public class OrderService {
                 org.springframework.data.domain.Sort.by(org.springframework.data.domain.Sort.Direction.DESC,
                         "createdAt"));
 
-        // Normalize query to lowercase for case-insensitive search if present
-        String finalQuery = (query != null && !query.trim().isEmpty()) ? query.toLowerCase().trim() : null;
-        String finalDate = (date != null && !date.trim().isEmpty()) ? date.trim() : null;
+        SearchCriteria criteria = toSearchCriteria(date, query);
+        return orderRepository.findOrders(statuses, criteria.from(), criteria.to(), criteria.queryId(),
+                criteria.userPrefix(), pageable);
+    }
 
-        return orderRepository.findOrders(statuses, finalDate, finalQuery, pageable);
+    // Keyset pagination: every page costs the same as the first, and there is no COUNT(*)
+    public com.example.order.dto.CursorPage<Order> searchOrders(String cursor, int size, List<String> statuses,
+            String date, String query) {
+        size = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+        OrderCursor after = OrderCursor.decode(cursor);
+        SearchCriteria criteria = toSearchCriteria(date, query);
+
+        List<Order> rows = orderRepository.findOrdersAfter(statuses, criteria.from(), criteria.to(),
+                criteria.queryId(), criteria.userPrefix(),
+                after != null ? after.createdAt() : null, after != null ? after.id() : null,
+                org.springframework.data.domain.PageRequest.of(0, size + 1));
+        return toCursorPage(rows, size);
+    }
+
+    public org.springframework.data.domain.Page<OrderSummary> searchOrderSummaries(int page, int size,
+            List<String> statuses, String date, String query) {
+        org.springframework.data.domain.Pageable pageable = org.springframework.data.domain.PageRequest.of(page, size,
+                org.springframework.data.domain.Sort.by(org.springframework.data.domain.Sort.Direction.DESC,
+                        "createdAt"));
+
+        SearchCriteria criteria = toSearchCriteria(date, query);
+        return orderRepository.findOrderSummaries(statuses, criteria.from(), criteria.to(), criteria.queryId(),
+                criteria.userPrefix(), pageable);
+    }
+
+    public com.example.order.dto.CursorPage<OrderSummary> searchOrderSummaries(String cursor, int size,
+            List<String> statuses, String date, String query) {
+        size = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+        OrderCursor after = OrderCursor.decode(cursor);
+        SearchCriteria criteria = toSearchCriteria(date, query);
+
+        List<OrderSummary> rows = orderRepository.findOrderSummariesAfter(statuses, criteria.from(), criteria.to(),
+                criteria.queryId(), criteria.userPrefix(),
+                after != null ? after.createdAt() : null, after != null ? after.id() : null,
+                org.springframework.data.domain.PageRequest.of(0, size + 1));
+        return toCursorPage(rows, size, summary -> new OrderCursor(summary.createdAt(), summary.id()));
+    }
+
+    /**
+     * Turns the search box and date picker into index-friendly predicates: the
+     * date becomes a createdAt range for that day in the restaurant's timezone,
+     * the query an exact order id (when numeric) or a userId prefix.
+     */
+    private SearchCriteria toSearchCriteria(String date, String query) {
+        java.time.Instant from = null;
+        java.time.Instant to = null;
+        if (date != null && !date.trim().isEmpty()) {
+            java.time.LocalDate day;
+            try {
+                day = java.time.LocalDate.parse(date.trim());
+            } catch (java.time.format.DateTimeParseException e) {
+                throw new org.springframework.web.server.ResponseStatusException(
+                        org.springframework.http.HttpStatus.BAD_REQUEST, "Invalid date: " + date);
+            }
+            java.time.ZoneId zone = settingsRegistry.zone();
+            from = day.atStartOfDay(zone).toInstant();
+            to = day.plusDays(1).atStartOfDay(zone).toInstant();
+        }
+
+        Long queryId = null;
+        String userPrefix = null;
+        if (query != null && !query.trim().isEmpty()) {
+            String q = query.trim();
+            if (q.chars().allMatch(Character::isDigit) && q.length() < 19) {
+                queryId = Long.valueOf(q);
+            }
+            // '!' escapes LIKE wildcards typed by the user; the column collation is case-insensitive
+            userPrefix = q.replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
+        }
+        return new SearchCriteria(from, to, queryId, userPrefix);
+    }
+
+    private record SearchCriteria(java.time.Instant from, java.time.Instant to, Long queryId, String userPrefix) {
+    }
+
+    private static com.example.order.dto.CursorPage<Order> toCursorPage(List<Order> rows, int size) {
+        return toCursorPage(rows, size, OrderCursor::after);
+    }
+
+    // rows holds up to size + 1 orders; the extra one only signals that another page exists
+    private static <T> com.example.order.dto.CursorPage<T> toCursorPage(List<T> rows, int size,
+            java.util.function.Function<T, OrderCursor> position) {
+        boolean hasMore = rows.size() > size;
+        List<T> items = hasMore ? rows.subList(0, size) : rows;
+        String next = hasMore ? position.apply(items.get(items.size() - 1)).encode() : null;
+        return new com.example.order.dto.CursorPage<>(items, next, hasMore);
     }
 
     @Transactional
@@ -395,11 +578,20 @@ public class OrderService {
             return 0;
         }
         // Shadow Token Merge: Any order with this guestToken belongs to the user now.
-        return orderRepository.mergeGuestOrders(userId, guestToken);
+        int merged = orderRepository.mergeGuestOrders(userId, guestToken);
+        if (merged > 0) {
+            orderEventOutbox.appendGuestOrdersMerged(userId, guestToken);
+            eventPublisher.publishEvent(new GuestOrdersMergedEvent(userId, guestToken));
+        }
+        return merged;
     }
 
-    @Transactional
     public Order updatePaymentMethod(Long orderId, com.example.order.entity.PaymentMethod paymentMethod) {
+        return optimisticRetry.inTransaction("updatePaymentMethod",
+                () -> applyUpdatePaymentMethod(orderId, paymentMethod));
+    }
+
+    private Order applyUpdatePaymentMethod(Long orderId, com.example.order.entity.PaymentMethod paymentMethod) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found: " + orderId));
 
@@ -408,10 +600,19 @@ public class OrderService {
         }
 
         order.setPaymentMethod(paymentMethod);
-        return orderRepository.save(order);
+        Order savedOrder = orderRepository.save(order);
+        // Customers are not notified of a new payment method; other instances' boards are
+        orderEventOutbox.appendChange(savedOrder);
+        orderChanged(savedOrder);
+        return savedOrder;
     }
 
     public String initiatePayment(Long orderId) {
+        return optimisticRetry.inTransaction("initiatePayment",
+                () -> applyInitiatePayment(orderId));
+    }
+
+    private String applyInitiatePayment(Long orderId) {
         java.util.Objects.requireNonNull(orderId, "Order ID cannot be null");
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found: " + orderId));
@@ -440,12 +641,21 @@ public class OrderService {
         return null; // For other methods default behavior
     }
 
-    @Transactional
     public Order completePayment(Long orderId, String paymentId) {
+        return optimisticRetry.inTransaction("completePayment",
+                () -> applyCompletePayment(orderId, paymentId));
+    }
+
+    private Order applyCompletePayment(Long orderId, String paymentId) {
         java.util.Objects.requireNonNull(orderId, "Order ID cannot be null");
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found: " + orderId));
 
+        // Duplicate callback (retry or second delivery): already settled, nothing to write or publish
+        if (order.getPaymentStatus() == com.example.order.entity.PaymentStatus.PAID) {
+            return order;
+        }
+
         order.setPaymentStatus(com.example.order.entity.PaymentStatus.PAID);
         order.setStatus("PAID");
         order.setPaymentId(paymentId != null ? paymentId : java.util.UUID.randomUUID().toString());
@@ -459,8 +669,12 @@ public class OrderService {
         return savedOrder;
     }
 
-    @Transactional
     public Order updatePaymentStatus(Long orderId, com.example.order.entity.PaymentStatus status) {
+        return optimisticRetry.inTransaction("updatePaymentStatus",
+                () -> applyUpdatePaymentStatus(orderId, status));
+    }
+
+    private Order applyUpdatePaymentStatus(Long orderId, com.example.order.entity.PaymentStatus status) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found: " + orderId));
 
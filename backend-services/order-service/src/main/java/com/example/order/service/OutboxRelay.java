@@ -0,0 +1,181 @@
+package com.example.order.service;
+
+import com.example.order.entity.OutboxEvent;
+import com.example.order.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the order outbox to RabbitMQ in batches.
+ *
+ * A batch is claimed in a short transaction (SELECT ... FOR UPDATE SKIP
+ * LOCKED, then stamped with a lease) and published after that transaction
+ * has committed, so no row lock or connection is held while waiting for
+ * publisher confirms. All confirms of a batch share one deadline. Acked
+ * events are deleted; nacked or unconfirmed ones are released for the next
+ * poll. If this process dies mid-batch the lease runs out and another relay
+ * picks the events up, so delivery stays at least once.
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final RabbitTemplate rabbitTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long confirmTimeoutMs;
+    private final long leaseMs;
+
+    private final Timer lagTimer;
+    private final Counter publishedCounter;
+    private final Counter failedCounter;
+    private final AtomicLong oldestPendingAgeMs = new AtomicLong();
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository, RabbitTemplate rabbitTemplate,
+            PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+            @Value("${app.outbox.batch-size:100}") int batchSize,
+            @Value("${app.outbox.confirm-timeout-ms:5000}") long confirmTimeoutMs,
+            @Value("${app.outbox.lease-ms:30000}") long leaseMs) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.rabbitTemplate = rabbitTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.confirmTimeoutMs = confirmTimeoutMs;
+        this.leaseMs = Math.max(leaseMs, confirmTimeoutMs * 2);
+
+        this.lagTimer = Timer.builder("order.outbox.lag")
+                .description("Time from outbox write to broker confirm")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.publishedCounter = Counter.builder("order.outbox.published").register(meterRegistry);
+        this.failedCounter = Counter.builder("order.outbox.failed").register(meterRegistry);
+        meterRegistry.gauge("order.outbox.oldest.age.ms", oldestPendingAgeMs);
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:200}")
+    public void drain() {
+        int relayed;
+        do {
+            relayed = relayBatch();
+        } while (relayed == batchSize);
+    }
+
+    /**
+     * Publishes one batch. Returns the batch size when every event was confirmed
+     * and 0 otherwise, so a failing broker is retried on the next poll rather
+     * than in a tight loop.
+     */
+    private int relayBatch() {
+        List<OutboxEvent> batch = transactionTemplate.execute(status -> claim());
+        if (batch == null || batch.isEmpty()) {
+            oldestPendingAgeMs.set(0);
+            return 0;
+        }
+        oldestPendingAgeMs.set(Duration.between(batch.get(0).getCreatedAt(), Instant.now()).toMillis());
+
+        Map<Long, String> failures = new LinkedHashMap<>();
+        List<CorrelationData> sent = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            if (!failures.isEmpty()) {
+                // Broker unreachable: the rest of the batch goes back untouched
+                failures.put(event.getId(), null);
+                continue;
+            }
+            CorrelationData correlation = new CorrelationData(String.valueOf(event.getId()));
+            try {
+                rabbitTemplate.send(event.getExchange(), event.getRoutingKey(), toMessage(event), correlation);
+                sent.add(correlation);
+            } catch (Exception e) {
+                failures.put(event.getId(), e.getMessage() != null ? e.getMessage() : e.getClass().getName());
+            }
+        }
+
+        List<Long> confirmed = new ArrayList<>(sent.size());
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(confirmTimeoutMs);
+        Instant now = Instant.now();
+        for (int i = 0; i < sent.size(); i++) {
+            OutboxEvent event = batch.get(i);
+            try {
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                CorrelationData.Confirm confirm = sent.get(i).getFuture().get(remaining, TimeUnit.NANOSECONDS);
+                if (confirm.isAck()) {
+                    confirmed.add(event.getId());
+                    lagTimer.record(Duration.between(event.getCreatedAt(), now));
+                } else {
+                    failures.put(event.getId(), confirm.getReason() != null ? confirm.getReason() : "nack");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failures.put(event.getId(), "interrupted");
+            } catch (Exception e) {
+                failures.put(event.getId(), "confirm timeout");
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!confirmed.isEmpty()) {
+                outboxEventRepository.deleteAllByIdInBatch(confirmed);
+            }
+            failures.forEach(this::release);
+        });
+        publishedCounter.increment(confirmed.size());
+        return confirmed.size() == batch.size() ? batch.size() : 0;
+    }
+
+    private List<OutboxEvent> claim() {
+        Instant now = Instant.now();
+        List<OutboxEvent> batch = outboxEventRepository.lockNextBatch(now, PageRequest.of(0, batchSize));
+        Instant leaseEnd = now.plusMillis(leaseMs);
+        batch.forEach(event -> event.setClaimedUntil(leaseEnd));
+        return batch;
+    }
+
+    // A null reason means the event was never sent; it is released without counting an attempt
+    private void release(Long id, String reason) {
+        if (reason == null) {
+            outboxEventRepository.clearClaim(id);
+            return;
+        }
+        String error = reason.length() > 255 ? reason.substring(0, 255) : reason;
+        outboxEventRepository.release(id, error);
+        failedCounter.increment();
+        log.warn("Outbox event {} not confirmed: {}", id, reason);
+    }
+
+    private static Message toMessage(OutboxEvent event) {
+        // Same wire format Jackson2JsonMessageConverter produces for the payload's class
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+        properties.setContentEncoding(StandardCharsets.UTF_8.name());
+        if (event.getPayloadType() != null) {
+            properties.setHeader("__TypeId__", event.getPayloadType());
+        }
+        properties.setMessageId(String.valueOf(event.getId()));
+        return new Message(event.getPayload().getBytes(StandardCharsets.UTF_8), properties);
+    }
+}
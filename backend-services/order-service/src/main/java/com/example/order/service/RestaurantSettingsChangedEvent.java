@@ -0,0 +1,8 @@
+package com.example.order.service;
+
+/**
+ * Published on the instance that wrote a setting, after commit and after its
+ * registry snapshot was rebuilt. Other instances only refresh their snapshot.
+ */
+public record RestaurantSettingsChangedEvent(String settingKey) {
+}
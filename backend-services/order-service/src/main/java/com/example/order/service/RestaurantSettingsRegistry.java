@@ -0,0 +1,204 @@
+package com.example.order.service;
+
+import com.example.order.config.RabbitConfig;
+import com.example.order.entity.RestaurantSettings;
+import com.example.order.repository.RestaurantSettingsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.DateTimeException;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory copy of the restaurant settings with the values the services
+ * need already parsed (timezone, table list), so hot paths never query or
+ * parse them.
+ *
+ * Writes go through {@link #update(String, String)}: the snapshot is rebuilt
+ * once the transaction commits and the other replicas are told to rebuild
+ * theirs over the {@link RabbitConfig#SETTINGS_EXCHANGE} fanout. Work that
+ * must happen once per change listens for {@link RestaurantSettingsChangedEvent}.
+ * A periodic refresh covers missed broadcasts and rows edited by hand.
+ */
+@Component
+public class RestaurantSettingsRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(RestaurantSettingsRegistry.class);
+
+    public static final String TIMEZONE = "TIMEZONE";
+    public static final String TABLE_LIST = "TABLE_LIST";
+
+    private final RestaurantSettingsRepository settingsRepository;
+    private final RabbitTemplate rabbitTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate readTemplate;
+    private final TransactionTemplate writeTemplate;
+    // ReentrantLock rather than synchronized: rebuilds do JDBC I/O and must not pin virtual threads
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private volatile Snapshot snapshot;
+
+    public RestaurantSettingsRegistry(RestaurantSettingsRepository settingsRepository, RabbitTemplate rabbitTemplate,
+            ApplicationEventPublisher eventPublisher, PlatformTransactionManager transactionManager) {
+        this.settingsRepository = settingsRepository;
+        this.rabbitTemplate = rabbitTemplate;
+        this.eventPublisher = eventPublisher;
+        this.readTemplate = new TransactionTemplate(transactionManager);
+        // Fresh persistence context: refreshes also run from afterCommit hooks
+        this.readTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTemplate.setReadOnly(true);
+        this.writeTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /** Restaurant timezone; UTC when unset or invalid. */
+    public ZoneId zone() {
+        return current().zone();
+    }
+
+    /** Table numbers guests can pick, in configured order. */
+    public List<String> tables() {
+        return current().tables();
+    }
+
+    /** Every setting as stored (detached copies). */
+    public List<RestaurantSettings> all() {
+        return current().settings();
+    }
+
+    public RestaurantSettings update(String key, String value) {
+        if (key == null || key.isBlank() || value == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "settingKey and settingValue are required");
+        }
+        if (TIMEZONE.equals(key)) {
+            try {
+                ZoneId.of(value);
+            } catch (DateTimeException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown timezone: " + value);
+            }
+        }
+        return writeTemplate.execute(status -> {
+            RestaurantSettings setting = settingsRepository.findBySettingKey(key)
+                    .orElseGet(() -> new RestaurantSettings(key, value));
+            setting.setSettingValue(value);
+            RestaurantSettings saved = settingsRepository.save(setting);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    refresh();
+                    broadcast(key);
+                    eventPublisher.publishEvent(new RestaurantSettingsChangedEvent(key));
+                }
+            });
+            return saved;
+        });
+    }
+
+    private void broadcast(String key) {
+        try {
+            rabbitTemplate.convertAndSend(RabbitConfig.SETTINGS_EXCHANGE, "",
+                    Map.of("settingKey", key, "origin", nodeId));
+        } catch (AmqpException e) {
+            // Other replicas catch up on their next scheduled refresh
+            log.warn("Could not broadcast settings change for {}: {}", key, e.getMessage());
+        }
+    }
+
+    @RabbitListener(queues = "#{settingsInvalidationQueue.name}")
+    public void onSettingsChanged(Map<String, Object> message) {
+        if (!nodeId.equals(message.get("origin"))) {
+            refresh();
+        }
+    }
+
+    @Scheduled(initialDelayString = "${app.settings.refresh-interval-ms:300000}",
+            fixedDelayString = "${app.settings.refresh-interval-ms:300000}")
+    public void scheduledRefresh() {
+        refresh();
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        rebuildLock.lock();
+        try {
+            return snapshot != null ? snapshot : refresh();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    public Snapshot refresh() {
+        rebuildLock.lock();
+        try {
+            Snapshot rebuilt = readTemplate.execute(status -> load());
+            snapshot = rebuilt;
+            return rebuilt;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private Snapshot load() {
+        List<RestaurantSettings> settings = new ArrayList<>();
+        Map<String, String> values = new HashMap<>();
+        for (RestaurantSettings setting : settingsRepository.findAll(Sort.by("id"))) {
+            RestaurantSettings copy = new RestaurantSettings(setting.getId(), setting.getSettingKey(),
+                    setting.getSettingValue());
+            settings.add(copy);
+            values.put(copy.getSettingKey(), copy.getSettingValue());
+        }
+        return new Snapshot(Collections.unmodifiableList(settings), parseZone(values.get(TIMEZONE)),
+                parseTables(values.get(TABLE_LIST)));
+    }
+
+    private static ZoneId parseZone(String value) {
+        if (value == null) {
+            return ZoneOffset.UTC;
+        }
+        try {
+            return ZoneId.of(value);
+        } catch (DateTimeException e) {
+            log.warn("Invalid TIMEZONE setting '{}', using UTC", value);
+            return ZoneOffset.UTC;
+        }
+    }
+
+    private static List<String> parseTables(String value) {
+        if (value == null || value.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(table -> !table.isEmpty())
+                .toList();
+    }
+
+    public record Snapshot(List<RestaurantSettings> settings, ZoneId zone, List<String> tables) {
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.order.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Space-Saving heavy-hitters summary (Metwally et al.): keeps at most
+ * {@code capacity} counters, and an item that arrives when the summary is
+ * full takes over the smallest counter. Every estimate overcounts by at most
+ * its {@code error}, and any item sold more than total / capacity times is
+ * guaranteed to be present.
+ *
+ * Not thread-safe; {@link TopSellingItems} guards it.
+ */
+public class SpaceSavingSketch {
+
+    private static final Comparator<Estimate> HIGHEST_FIRST = Comparator.comparingLong(Estimate::count).reversed()
+            .thenComparing(Estimate::item);
+
+    private final int capacity;
+    private final Map<String, Counter> counters = new HashMap<>();
+
+    public SpaceSavingSketch(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+    }
+
+    public void offer(String item, long quantity) {
+        if (quantity <= 0) {
+            return;
+        }
+        Counter counter = counters.get(item);
+        if (counter != null) {
+            counter.count += quantity;
+            return;
+        }
+        if (counters.size() < capacity) {
+            counters.put(item, new Counter(quantity, 0));
+            return;
+        }
+        // Full: the new item inherits the smallest count as its possible overcount
+        Map.Entry<String, Counter> smallest = counters.entrySet().stream()
+                .min(Comparator.comparingLong(e -> e.getValue().count))
+                .orElseThrow();
+        long floor = smallest.getValue().count;
+        counters.remove(smallest.getKey());
+        counters.put(item, new Counter(floor + quantity, floor));
+    }
+
+    /** Highest estimates first, at most {@code limit} of them. */
+    public List<Estimate> top(int limit) {
+        return estimates().stream().sorted(HIGHEST_FIRST).limit(limit).toList();
+    }
+
+    public List<Estimate> estimates() {
+        List<Estimate> estimates = new ArrayList<>(counters.size());
+        counters.forEach((item, counter) -> estimates.add(new Estimate(item, counter.count, counter.error)));
+        return estimates;
+    }
+
+    public boolean isEmpty() {
+        return counters.isEmpty();
+    }
+
+    /** Largest count an item missing from this summary could have. */
+    private long floor() {
+        if (counters.size() < capacity) {
+            return 0;
+        }
+        return counters.values().stream().mapToLong(counter -> counter.count).min().orElse(0);
+    }
+
+    public static SpaceSavingSketch of(int capacity, Collection<Estimate> estimates) {
+        SpaceSavingSketch sketch = new SpaceSavingSketch(capacity);
+        estimates.stream().sorted(HIGHEST_FIRST).limit(capacity)
+                .forEach(e -> sketch.counters.put(e.item(), new Counter(e.count(), e.error())));
+        return sketch;
+    }
+
+    /**
+     * Combines summaries of disjoint streams (other days, other replicas).
+     * An item missing from one summary is charged that summary's floor, so
+     * the merged estimates keep the one-sided error guarantee.
+     */
+    public static SpaceSavingSketch merge(int capacity, Collection<SpaceSavingSketch> sketches) {
+        Set<String> items = new HashSet<>();
+        sketches.forEach(sketch -> items.addAll(sketch.counters.keySet()));
+        long[] floors = sketches.stream().mapToLong(SpaceSavingSketch::floor).toArray();
+
+        List<Estimate> merged = new ArrayList<>(items.size());
+        for (String item : items) {
+            long count = 0;
+            long error = 0;
+            int i = 0;
+            for (SpaceSavingSketch sketch : sketches) {
+                Counter counter = sketch.counters.get(item);
+                count += counter != null ? counter.count : floors[i];
+                error += counter != null ? counter.error : floors[i];
+                i++;
+            }
+            merged.add(new Estimate(item, count, error));
+        }
+        return of(capacity, merged);
+    }
+
+    /** Estimated quantity sold; the true figure lies in [count - error, count]. */
+    public record Estimate(String item, long count, long error) {
+    }
+
+    private static final class Counter {
+        private long count;
+        private final long error;
+
+        private Counter(long count, long error) {
+            this.count = count;
+            this.error = error;
+        }
+    }
+}
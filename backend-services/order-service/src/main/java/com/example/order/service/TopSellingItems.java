@@ -0,0 +1,314 @@
+package com.example.order.service;
+
+import com.example.order.entity.Order;
+import com.example.order.entity.OrderItem;
+import com.example.order.entity.TopItemCheckpoint;
+import com.example.order.entity.TopItemCheckpointId;
+import com.example.order.repository.OrderRepository;
+import com.example.order.repository.TopItemCheckpointRepository;
+import com.example.order.service.SpaceSavingSketch.Estimate;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Best-selling items over rolling windows, kept in memory as one
+ * {@link SpaceSavingSketch} per restaurant-local day instead of grouping
+ * every order line on each request.
+ *
+ * Lines are counted after their transaction commits. Each instance saves its
+ * own day summaries every checkpoint interval and loads the other instances'
+ * (and its own from before a restart, which it treats like any other
+ * instance's), so rankings cover the whole cluster and lag by at most one
+ * interval for sales taken elsewhere.
+ *
+ * Sales and checkpoints update the day sketches under a lock. The merged
+ * window rankings are published as an immutable snapshot that {@link #top}
+ * reads without locking; the first read after a sale or checkpoint merges a
+ * new one.
+ */
+@Component
+public class TopSellingItems {
+
+    private static final Logger log = LoggerFactory.getLogger(TopSellingItems.class);
+
+    private static final String BACKFILL_NODE = "backfill";
+    private static final TypeReference<List<Estimate>> ESTIMATES = new TypeReference<>() {
+    };
+
+    public enum Window {
+        TODAY(1), LAST_7_DAYS(7), LAST_30_DAYS(30);
+
+        private final int days;
+
+        Window(int days) {
+            this.days = days;
+        }
+
+        public static Window of(String window) {
+            if (window == null || window.isBlank() || window.equalsIgnoreCase("30d")) {
+                return LAST_30_DAYS;
+            }
+            if (window.equalsIgnoreCase("today")) {
+                return TODAY;
+            }
+            if (window.equalsIgnoreCase("7d")) {
+                return LAST_7_DAYS;
+            }
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "window must be 'today', '7d' or '30d'");
+        }
+    }
+
+    private final TopItemCheckpointRepository checkpointRepository;
+    private final OrderRepository orderRepository;
+    private final RestaurantSettingsRegistry settingsRegistry;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int capacity;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // Guarded by lock
+    private final Map<LocalDate, SpaceSavingSketch> localDays = new TreeMap<>();
+    private final Set<LocalDate> unsavedDays = new HashSet<>();
+    private Map<LocalDate, SpaceSavingSketch> peerDays = Map.of();
+    // Bumped under lock whenever the sketches change
+    private volatile long generation;
+    private volatile Rankings rankings = new Rankings(LocalDate.MIN, -1, Map.of());
+
+    public TopSellingItems(TopItemCheckpointRepository checkpointRepository, OrderRepository orderRepository,
+            RestaurantSettingsRegistry settingsRegistry, ApplicationEventPublisher eventPublisher,
+            ObjectMapper objectMapper, PlatformTransactionManager transactionManager,
+            @Value("${app.top-items.capacity:100}") int capacity) {
+        this.checkpointRepository = checkpointRepository;
+        this.orderRepository = orderRepository;
+        this.settingsRegistry = settingsRegistry;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.capacity = capacity;
+    }
+
+    /** Collects the order's lines not yet counted; they are counted if the transaction commits. */
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onOrderChanged(OrderChangedEvent event) {
+        Order order = event.order();
+        if (order.getItems() == null) {
+            return;
+        }
+        Map<String, Long> quantities = new HashMap<>();
+        for (OrderItem item : order.getItems()) {
+            if (!item.isTallied() && item.getSnapshotName() != null && item.getQuantity() != null) {
+                quantities.merge(item.getSnapshotName(), item.getQuantity().longValue(), Long::sum);
+                item.setTallied(true);
+            }
+        }
+        if (!quantities.isEmpty()) {
+            eventPublisher.publishEvent(new ItemsSoldEvent(Instant.now(), quantities));
+        }
+    }
+
+    @TransactionalEventListener
+    public void onItemsSold(ItemsSoldEvent event) {
+        LocalDate day = LocalDate.ofInstant(event.soldAt(), settingsRegistry.zone());
+        lock.lock();
+        try {
+            SpaceSavingSketch sketch = localDays.computeIfAbsent(day, d -> new SpaceSavingSketch(capacity));
+            event.quantities().forEach(sketch::offer);
+            unsavedDays.add(day);
+            generation++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Highest-selling items in the window, best first. */
+    public List<Estimate> top(Window window, int limit) {
+        LocalDate today = LocalDate.now(settingsRegistry.zone());
+        Rankings current = rankings;
+        if (!current.isFor(today, generation)) {
+            current = rank(today);
+        }
+        List<Estimate> items = current.byWindow().get(window);
+        return items.subList(0, Math.min(limit, items.size()));
+    }
+
+    private Rankings rank(LocalDate today) {
+        lock.lock();
+        try {
+            Rankings current = rankings;
+            if (current.isFor(today, generation)) {
+                return current; // Merged by another reader while this one waited
+            }
+            Map<Window, List<Estimate>> byWindow = new EnumMap<>(Window.class);
+            for (Window window : Window.values()) {
+                List<SpaceSavingSketch> sketches = new ArrayList<>();
+                for (LocalDate day = today.minusDays(window.days - 1); !day.isAfter(today); day = day.plusDays(1)) {
+                    addIfPresent(sketches, localDays.get(day));
+                    addIfPresent(sketches, peerDays.get(day));
+                }
+                byWindow.put(window, SpaceSavingSketch.merge(capacity, sketches).top(capacity));
+            }
+            current = new Rankings(today, generation, Map.copyOf(byWindow));
+            rankings = current;
+            return current;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void addIfPresent(List<SpaceSavingSketch> sketches, SpaceSavingSketch sketch) {
+        if (sketch != null) {
+            sketches.add(sketch);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (checkpointRepository.count() == 0) {
+            backfill();
+        }
+        checkpoint();
+    }
+
+    /**
+     * Saves this instance's changed days, drops days that fell out of the
+     * longest window and reloads everyone else's summaries.
+     */
+    @Scheduled(fixedDelayString = "${app.top-items.checkpoint-interval-ms:60000}",
+            initialDelayString = "${app.top-items.checkpoint-interval-ms:60000}")
+    public void checkpoint() {
+        LocalDate oldest = LocalDate.now(settingsRegistry.zone()).minusDays(Window.LAST_30_DAYS.days - 1);
+
+        Map<LocalDate, List<Estimate>> unsaved = new LinkedHashMap<>();
+        lock.lock();
+        try {
+            localDays.keySet().removeIf(day -> day.isBefore(oldest));
+            unsavedDays.removeIf(day -> day.isBefore(oldest));
+            unsavedDays.forEach(day -> unsaved.put(day, localDays.get(day).estimates()));
+            unsavedDays.clear();
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            List<TopItemCheckpoint> rows = new ArrayList<>();
+            unsaved.forEach((day, estimates) -> rows.add(checkpointRow(nodeId, day, estimates)));
+            transactionTemplate.executeWithoutResult(status -> {
+                checkpointRepository.saveAll(rows);
+                checkpointRepository.deleteOlderThan(oldest);
+            });
+        } catch (RuntimeException e) {
+            log.warn("Could not save top item checkpoint, will retry: {}", e.getMessage());
+            lock.lock();
+            try {
+                unsavedDays.addAll(unsaved.keySet());
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        Map<LocalDate, List<SpaceSavingSketch>> byDay = new HashMap<>();
+        for (TopItemCheckpoint row : checkpointRepository.findSince(oldest)) {
+            if (!row.getId().getNodeId().equals(nodeId)) {
+                byDay.computeIfAbsent(row.getId().getSaleDay(), d -> new ArrayList<>())
+                        .add(SpaceSavingSketch.of(capacity, readEstimates(row)));
+            }
+        }
+        Map<LocalDate, SpaceSavingSketch> peers = new HashMap<>();
+        byDay.forEach((day, sketches) -> peers.put(day, SpaceSavingSketch.merge(capacity, sketches)));
+        lock.lock();
+        try {
+            peerDays = peers;
+            generation++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * First start: summarises the last 30 days of order lines into
+     * checkpoint rows under a fixed node id, so instances starting together
+     * write the same rows instead of counting history twice.
+     */
+    private void backfill() {
+        ZoneId zone = settingsRegistry.zone();
+        LocalDate oldest = LocalDate.now(zone).minusDays(Window.LAST_30_DAYS.days - 1);
+        Map<LocalDate, SpaceSavingSketch> days = new HashMap<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<Object[]> rows = orderRepository.streamItemSalesSince(oldest.atStartOfDay(zone).toInstant())) {
+                rows.forEach(row -> {
+                    if (row[0] != null && row[1] != null && row[2] != null) {
+                        LocalDate day = LocalDate.ofInstant((Instant) row[0], zone);
+                        days.computeIfAbsent(day, d -> new SpaceSavingSketch(capacity))
+                                .offer((String) row[1], ((Integer) row[2]).longValue());
+                    }
+                });
+            }
+            List<TopItemCheckpoint> checkpoints = new ArrayList<>();
+            days.forEach((day, sketch) -> checkpoints.add(checkpointRow(BACKFILL_NODE, day, sketch.estimates())));
+            checkpointRepository.saveAll(checkpoints);
+        });
+        log.info("Backfilled top item summaries for {} days", days.size());
+    }
+
+    private TopItemCheckpoint checkpointRow(String node, LocalDate day, List<Estimate> estimates) {
+        TopItemCheckpoint row = new TopItemCheckpoint();
+        row.setId(new TopItemCheckpointId(node, day));
+        try {
+            row.setPayload(objectMapper.writeValueAsString(estimates));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize top items for " + day, e);
+        }
+        return row;
+    }
+
+    private List<Estimate> readEstimates(TopItemCheckpoint row) {
+        try {
+            return objectMapper.readValue(row.getPayload(), ESTIMATES);
+        } catch (JsonProcessingException e) {
+            log.warn("Skipping unreadable top item checkpoint {}: {}", row.getId(), e.getMessage());
+            return List.of();
+        }
+    }
+
+    // Rankings for every window, merged from the sketches as of one generation
+    private record Rankings(LocalDate today, long generation, Map<Window, List<Estimate>> byWindow) {
+        boolean isFor(LocalDate day, long currentGeneration) {
+            return generation == currentGeneration && today.equals(day);
+        }
+    }
+}
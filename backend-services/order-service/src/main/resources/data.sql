@@ -13,3 +13,13 @@ INSERT IGNORE INTO menu (id, name, price, description, image_url, category_id) V
 INSERT IGNORE INTO menu (id, name, price, description, image_url, category_id) VALUES (2, 'Margherita Pizza', 15.50, 'Traditional Italian pizza with basil and mozzarella', 'https://images.unsplash.com/photo-1574071318508-1cdbab80d002?auto=format&fit=crop&w=500&q=60', 1);
 INSERT IGNORE INTO menu (id, name, price, description, image_url, category_id) VALUES (3, 'Caesar Salad', 8.99, 'Crisp romaine lettuce', 'https://images.unsplash.com/photo-1550304943-4f24f54ddde9?w=800', 2);
 INSERT IGNORE INTO menu (id, name, price, description, image_url, category_id) VALUES (4, 'Spaghetti Carbonara', 14.00, 'Creamy pasta with pancetta and black pepper', 'https://images.unsplash.com/photo-1612874742237-6526221588e3?auto=format&fit=crop&w=500&q=60', 1);
+
+-- Pooled ID generators: start above any rows written while the tables used AUTO_INCREMENT.
+-- Hibernate may already have created each counter row with its initial value when it created
+-- id_generator, so make sure the row exists, then only ever move it up.
+INSERT IGNORE INTO id_generator (sequence_name, next_val) VALUES ('orders', 1);
+INSERT IGNORE INTO id_generator (sequence_name, next_val) VALUES ('order_item', 1);
+INSERT IGNORE INTO id_generator (sequence_name, next_val) VALUES ('order_outbox', 1);
+UPDATE id_generator SET next_val = GREATEST(next_val, (SELECT COALESCE(MAX(id), 0) + 1 FROM orders)) WHERE sequence_name = 'orders';
+UPDATE id_generator SET next_val = GREATEST(next_val, (SELECT COALESCE(MAX(id), 0) + 1 FROM order_item)) WHERE sequence_name = 'order_item';
+UPDATE id_generator SET next_val = GREATEST(next_val, (SELECT COALESCE(MAX(id), 0) + 1 FROM order_outbox)) WHERE sequence_name = 'order_outbox';
@@ -0,0 +1,92 @@
+package com.example.order;
+
+import com.example.order.config.RabbitConfig;
+import com.example.order.entity.Order;
+import com.example.order.repository.OrderRepository;
+import com.example.order.service.ActiveOrderBoard;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Order events published by other instances keep the board current without
+ * waiting for a resync.
+ */
+public class ActiveOrderBoardTest {
+
+        private final OrderRepository orderRepository = mock(OrderRepository.class);
+        private final ActiveOrderBoard board = new ActiveOrderBoard(orderRepository,
+                        mock(PlatformTransactionManager.class), new SimpleMeterRegistry());
+
+        @BeforeEach
+        public void seedEmpty() {
+                when(orderRepository.findWithItemsByStatusIn(any())).thenReturn(List.of());
+                board.seed();
+        }
+
+        @Test
+        public void testOrderFromAnotherInstanceIsLoadedAndShown() {
+                when(orderRepository.findWithItemsByIdIn(Set.of(7L))).thenReturn(List.of(order(7L, "PENDING", 0L)));
+
+                board.onOrderEvent(Map.of("orderId", 7, "status", "PENDING"), RabbitConfig.ROUTING_KEY);
+
+                assertEquals(List.of(7L), ids(board.list(null, "T1")));
+        }
+
+        @Test
+        public void testOlderCopyDoesNotReplaceNewerOne() {
+                when(orderRepository.findWithItemsByIdIn(Set.of(7L)))
+                                .thenReturn(List.of(order(7L, "PREPARING", 2L)))
+                                .thenReturn(List.of(order(7L, "PENDING", 1L)));
+
+                board.onOrderEvent(Map.of("orderId", 7, "status", "PREPARING"), RabbitConfig.ROUTING_KEY);
+                board.onOrderEvent(Map.of("orderId", 7, "status", "PENDING"), RabbitConfig.CHANGED_ROUTING_KEY);
+
+                assertEquals(List.of(7L), ids(board.list("PREPARING", null)));
+                assertTrue(board.list("PENDING", null).isEmpty());
+        }
+
+        @Test
+        public void testFinishedOrderNotOnTheBoardIsNotLoaded() {
+                board.onOrderEvent(Map.of("orderId", 8, "status", "COMPLETED"), RabbitConfig.ROUTING_KEY);
+
+                verify(orderRepository, never()).findWithItemsByIdIn(any());
+        }
+
+        @Test
+        public void testLoadFailureLeavesBoardForResync() {
+                when(orderRepository.findWithItemsByIdIn(any())).thenThrow(new IllegalStateException("db down"));
+
+                board.onOrderEvent(Map.of("orderId", 9, "status", "PENDING"), RabbitConfig.ROUTING_KEY);
+
+                assertEquals(0, board.size());
+        }
+
+        private static Order order(Long id, String status, long version) {
+                Order order = new Order();
+                order.setId(id);
+                order.setStatus(status);
+                order.setTableNumber("T1");
+                order.setCreatedAt(Instant.now());
+                order.setVersion(version);
+                return order;
+        }
+
+        private static List<Long> ids(List<Order> orders) {
+                return orders.stream().map(Order::getId).toList();
+        }
+}
@@ -0,0 +1,116 @@
+package com.example.order;
+
+import com.example.order.dto.CreateOrderRequest;
+import com.example.order.dto.OrderItemRequest;
+import com.example.order.entity.Menu;
+import com.example.order.entity.Order;
+import com.example.order.entity.OrderItem;
+import com.example.order.repository.MenuRepository;
+import com.example.order.service.OrderService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Starts against a database whose order tables already hold rows written
+ * while they used AUTO_INCREMENT, the way an upgraded install does, and
+ * checks that data.sql moves the pooled ID generators past them.
+ */
+@SpringBootTest
+@TestPropertySource(properties = {
+                "app.jwt.secret=very-long-test-secret-key-for-jwt-signing-and-verification-purposes-1234567890",
+                "spring.datasource.url=jdbc:mysql://localhost:3307/" + IdGeneratorSeedTest.DATABASE
+                                + "?useSSL=false&allowPublicKeyRetrieval=true&rewriteBatchedStatements=true",
+                "spring.jpa.hibernate.ddl-auto=update",
+                "spring.jpa.defer-datasource-initialization=true",
+                "spring.sql.init.mode=always"
+})
+public class IdGeneratorSeedTest {
+
+        static final String DATABASE = "order_db_id_seed";
+
+        private static final long LEGACY_ORDER_ID = 500;
+        private static final long LEGACY_ITEM_ID = 900;
+        private static final long LEGACY_OUTBOX_ID = 700;
+
+        @Autowired
+        private OrderService orderService;
+
+        @Autowired
+        private MenuRepository menuRepository;
+
+        @Autowired
+        private JdbcTemplate jdbcTemplate;
+
+        // Runs before the context starts, so Hibernate and data.sql find the legacy tables
+        @BeforeAll
+        public static void createLegacyTables() throws Exception {
+                String password = System.getenv().getOrDefault("MYSQL_ROOT_PASSWORD", "root");
+                try (Connection connection = DriverManager.getConnection(
+                                "jdbc:mysql://localhost:3307/?useSSL=false&allowPublicKeyRetrieval=true", "root", password);
+                                Statement statement = connection.createStatement()) {
+                        statement.execute("DROP DATABASE IF EXISTS " + DATABASE);
+                        statement.execute("CREATE DATABASE " + DATABASE);
+                        statement.execute("USE " + DATABASE);
+                        statement.execute("CREATE TABLE orders (id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,"
+                                        + " status VARCHAR(255), created_at DATETIME(6),"
+                                        + " version BIGINT NOT NULL DEFAULT 0)");
+                        statement.execute("CREATE TABLE order_item (id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,"
+                                        + " order_id BIGINT, quantity INT)");
+                        statement.execute("CREATE TABLE order_outbox (id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,"
+                                        + " exchange VARCHAR(255) NOT NULL, routing_key VARCHAR(255) NOT NULL,"
+                                        + " payload VARCHAR(4000) NOT NULL, attempts INT NOT NULL DEFAULT 0,"
+                                        + " claimed_until DATETIME(6))");
+                        // Low and high ids: a generator left at its initial value collides with the first one
+                        statement.execute("INSERT INTO orders (id, status, created_at) VALUES"
+                                        + " (1, 'COMPLETED', NOW(6)), (" + LEGACY_ORDER_ID + ", 'COMPLETED', NOW(6))");
+                        statement.execute("INSERT INTO order_item (id, order_id, quantity) VALUES"
+                                        + " (1, 1, 1), (" + LEGACY_ITEM_ID + ", " + LEGACY_ORDER_ID + ", 1)");
+                        // Claimed far ahead so the relay leaves the legacy events alone
+                        statement.execute("INSERT INTO order_outbox (id, exchange, routing_key, payload, claimed_until) VALUES"
+                                        + " (1, 'legacy', 'legacy', '{}', '2999-01-01'),"
+                                        + " (" + LEGACY_OUTBOX_ID + ", 'legacy', 'legacy', '{}', '2999-01-01')");
+                }
+        }
+
+        @Test
+        public void testNewOrderIdsStartAboveLegacyRows() {
+                Menu menu = new Menu();
+                menu.setName("Seed Burger");
+                menu.setPrice(new BigDecimal("10.00"));
+                Long menuId = menuRepository.save(menu).getId();
+
+                OrderItemRequest item = new OrderItemRequest();
+                item.setMenuId(menuId);
+                item.setQuantity(2);
+                CreateOrderRequest request = new CreateOrderRequest();
+                request.setOrderType("DINE_IN");
+                request.setTableNumber("T1");
+                request.setItems(List.of(item));
+
+                Order order = orderService.createOrder(null, request);
+
+                assertTrue(order.getId() > LEGACY_ORDER_ID, "order id " + order.getId());
+                for (OrderItem saved : order.getItems()) {
+                        assertTrue(saved.getId() > LEGACY_ITEM_ID, "order item id " + saved.getId());
+                }
+                List<Long> outboxIds = jdbcTemplate.queryForList(
+                                "SELECT id FROM order_outbox WHERE aggregate_id = ?", Long.class, order.getId());
+                assertEquals(1, outboxIds.size());
+                assertTrue(outboxIds.get(0) > LEGACY_OUTBOX_ID, "outbox id " + outboxIds.get(0));
+                assertEquals(2, jdbcTemplate.queryForObject(
+                                "SELECT COUNT(*) FROM orders WHERE id IN (1, " + LEGACY_ORDER_ID + ")", Integer.class));
+        }
+}
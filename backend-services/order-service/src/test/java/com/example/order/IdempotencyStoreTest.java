@@ -0,0 +1,70 @@
+package com.example.order;
+
+import com.example.order.service.IdempotencyStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class IdempotencyStoreTest {
+
+        private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        private final IdempotencyStore store = new IdempotencyStore(600, 100, meterRegistry);
+
+        @Test
+        public void testRetryReplaysTheFirstResult() {
+                AtomicInteger runs = new AtomicInteger();
+
+                assertEquals(1, (int) store.execute("k", runs::incrementAndGet));
+                assertEquals(1, (int) store.execute("k", runs::incrementAndGet));
+                assertEquals(1, runs.get());
+        }
+
+        @Test
+        public void testFailureIsNotCached() {
+                assertThrows(IllegalStateException.class, () -> store.execute("k", () -> {
+                        throw new IllegalStateException("first attempt");
+                }));
+
+                assertEquals("second attempt", store.execute("k", () -> "second attempt"));
+        }
+
+        @Test
+        public void testErrorReleasesWaitingRetry() throws Exception {
+                CountDownLatch running = new CountDownLatch(1);
+                CountDownLatch fail = new CountDownLatch(1);
+                CompletableFuture<Object> first = CompletableFuture.supplyAsync(() -> store.execute("k", () -> {
+                        running.countDown();
+                        await(fail);
+                        throw new AssertionError("out of memory, say");
+                }));
+                running.await();
+                CompletableFuture<Object> retry = CompletableFuture.supplyAsync(() -> store.execute("k", () -> "ran twice"));
+                // Counted just before the retry starts waiting on the first attempt
+                while (meterRegistry.counter("order.idempotency.replays").count() < 1) {
+                        Thread.sleep(5);
+                }
+
+                fail.countDown();
+
+                ExecutionException waited = assertThrows(ExecutionException.class, () -> retry.get(5, TimeUnit.SECONDS));
+                assertInstanceOf(AssertionError.class, waited.getCause());
+                assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+        }
+
+        private static void await(CountDownLatch latch) {
+                try {
+                        latch.await();
+                } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                }
+        }
+}
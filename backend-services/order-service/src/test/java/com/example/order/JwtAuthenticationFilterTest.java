@@ -0,0 +1,111 @@
+package com.example.order;
+
+import com.example.order.security.JwtAuthenticationFilter;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class JwtAuthenticationFilterTest {
+
+        static final String SECRET = "very-long-test-secret-key-for-jwt-signing-and-verification-purposes-1234567890";
+
+        private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        private final JwtAuthenticationFilter filter = new JwtAuthenticationFilter(SECRET, 300, 100, false,
+                        meterRegistry);
+
+        @AfterEach
+        public void clearContext() {
+                SecurityContextHolder.clearContext();
+        }
+
+        @Test
+        public void testRepeatedTokenIsVerifiedOnce() throws Exception {
+                String token = token(SECRET, "alice", new Date(System.currentTimeMillis() + 60_000));
+
+                for (int i = 0; i < 3; i++) {
+                        Authentication auth = authenticate(token);
+                        assertEquals("alice", auth.getName());
+                        assertEquals("ROLE_USER", auth.getAuthorities().iterator().next().getAuthority());
+                }
+                assertEquals(1, meterRegistry.counter("order.jwt.cache", "result", "miss").count());
+                assertEquals(2, meterRegistry.counter("order.jwt.cache", "result", "hit").count());
+        }
+
+        @Test
+        public void testCachedTokenIsReverifiedAfterTtl() throws Exception {
+                JwtAuthenticationFilter noReuse = new JwtAuthenticationFilter(SECRET, 0, 100, false, meterRegistry);
+                MockHttpServletRequest request = new MockHttpServletRequest("GET", "/orders/my");
+                request.addHeader("Authorization",
+                                "Bearer " + token(SECRET, "alice", new Date(System.currentTimeMillis() + 60_000)));
+
+                for (int i = 0; i < 2; i++) {
+                        SecurityContextHolder.clearContext();
+                        noReuse.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+                        assertEquals("alice", SecurityContextHolder.getContext().getAuthentication().getName());
+                }
+                assertEquals(2, meterRegistry.counter("order.jwt.cache", "result", "miss").count());
+                assertEquals(0, meterRegistry.counter("order.jwt.cache", "result", "hit").count());
+        }
+
+        @Test
+        public void testInvalidTokensAreNotAuthenticatedOrCached() throws Exception {
+                String forged = token("another-secret-of-the-same-length-for-hmac-signing-and-verification-0000",
+                                "mallory", new Date(System.currentTimeMillis() + 60_000));
+                String expired = token(SECRET, "alice", new Date(System.currentTimeMillis() - 1_000));
+
+                for (int i = 0; i < 2; i++) {
+                        assertNull(authenticate(forged));
+                        assertNull(authenticate(expired));
+                }
+                assertEquals(4, meterRegistry.counter("order.jwt.cache", "result", "miss").count());
+        }
+
+        @Test
+        public void testGatewayHeadersAreTrustedOnlyWhenEnabled() throws Exception {
+                MockHttpServletRequest request = new MockHttpServletRequest("GET", "/orders/my");
+                request.addHeader("X-User-Id", "0912345678");
+                request.addHeader("X-User-Roles", "ROLE_USER,ROLE_ADMIN");
+
+                filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+                assertNull(SecurityContextHolder.getContext().getAuthentication());
+
+                JwtAuthenticationFilter behindGateway = new JwtAuthenticationFilter(SECRET, 300, 100, true,
+                                meterRegistry);
+                behindGateway.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+                Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+                assertEquals("0912345678", auth.getName());
+                assertEquals(2, auth.getAuthorities().size());
+        }
+
+        private Authentication authenticate(String token) throws Exception {
+                SecurityContextHolder.clearContext();
+                MockHttpServletRequest request = new MockHttpServletRequest("GET", "/orders/my");
+                request.addHeader("Authorization", "Bearer " + token);
+                filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+                return SecurityContextHolder.getContext().getAuthentication();
+        }
+
+        static String token(String secret, String subject, Date expiration) {
+                return Jwts.builder()
+                                .subject(subject)
+                                .claim("roles", List.of("USER"))
+                                .issuedAt(new Date())
+                                .expiration(expiration)
+                                .signWith(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)))
+                                .compact();
+        }
+}
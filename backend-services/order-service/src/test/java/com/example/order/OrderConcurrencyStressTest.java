@@ -0,0 +1,106 @@
+package com.example.order;
+
+import com.example.order.dto.CreateOrderRequest;
+import com.example.order.dto.OrderItemRequest;
+import com.example.order.entity.Order;
+import com.example.order.entity.OrderItem;
+import com.example.order.repository.OrderRepository;
+import com.example.order.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Kitchen tablet and customer phones adding to the same order at once:
+ * no line may be lost and totalPrice must always equal the sum of the lines.
+ */
+@SpringBootTest
+@org.springframework.test.context.TestPropertySource(properties = {
+                "app.jwt.secret=very-long-test-secret-key-for-jwt-signing-and-verification-purposes-1234567890",
+                "spring.jpa.hibernate.ddl-auto=create-drop",
+                "app.optimistic.max-attempts=100"
+})
+public class OrderConcurrencyStressTest {
+
+        private static final int THREADS = 8;
+        private static final int ADDS_PER_THREAD = 25;
+
+        @Autowired
+        private OrderService orderService;
+
+        @Autowired
+        private OrderRepository orderRepository;
+
+        @Autowired
+        private com.example.order.repository.MenuRepository menuRepository;
+
+        @Autowired
+        private PlatformTransactionManager transactionManager;
+
+        @Test
+        public void testConcurrentAddItemsKeepTotalConsistent() throws Exception {
+                com.example.order.entity.Menu menu = new com.example.order.entity.Menu();
+                menu.setName("Stress Tea");
+                menu.setPrice(new BigDecimal("3.50"));
+                Long menuId = menuRepository.save(menu).getId();
+
+                CreateOrderRequest request = new CreateOrderRequest();
+                request.setItems(Collections.singletonList(item(menuId)));
+                Long orderId = orderService.createOrder("stress-user", request).getId();
+
+                ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < THREADS; t++) {
+                        futures.add(pool.submit(() -> {
+                                start.await();
+                                for (int i = 0; i < ADDS_PER_THREAD; i++) {
+                                        orderService.addItems(orderId, "stress-user", null,
+                                                        Collections.singletonList(item(menuId)));
+                                }
+                                return null;
+                        }));
+                }
+                start.countDown();
+                for (Future<?> future : futures) {
+                        future.get(2, TimeUnit.MINUTES); // Rethrows any failed addItems
+                }
+                pool.shutdown();
+
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                        Order order = orderRepository.findById(orderId).orElseThrow();
+                        BigDecimal lineSum = BigDecimal.ZERO;
+                        for (OrderItem line : order.getItems()) {
+                                lineSum = lineSum.add(line.getSnapshotPrice()
+                                                .multiply(BigDecimal.valueOf(line.getQuantity())));
+                        }
+                        int expectedLines = 1 + THREADS * ADDS_PER_THREAD;
+                        assertEquals(expectedLines, order.getItems().size());
+                        assertEquals(0, lineSum.compareTo(order.getTotalPrice()),
+                                        "totalPrice " + order.getTotalPrice() + " != sum of lines " + lineSum);
+                        assertEquals(0, new BigDecimal("3.50").multiply(BigDecimal.valueOf(expectedLines))
+                                        .compareTo(order.getTotalPrice()));
+                });
+        }
+
+        private static OrderItemRequest item(Long menuId) {
+                OrderItemRequest item = new OrderItemRequest();
+                item.setMenuId(menuId);
+                item.setQuantity(1);
+                return item;
+        }
+}
@@ -0,0 +1,102 @@
+package com.example.order;
+
+import com.example.order.dto.CreateOrderRequest;
+import com.example.order.dto.OrderItemRequest;
+import com.example.order.service.OrderService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * List endpoints must issue the same number of SQL statements however many
+ * orders they return (no query per order for its items).
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@org.springframework.test.context.TestPropertySource(properties = {
+                "app.jwt.secret=very-long-test-secret-key-for-jwt-signing-and-verification-purposes-1234567890",
+                "spring.jpa.hibernate.ddl-auto=create-drop",
+                "spring.jpa.properties.hibernate.generate_statistics=true",
+                // Keep background pollers from adding statements while we count
+                "app.outbox.poll-interval-ms=3600000",
+                "app.active-board.resync-interval-ms=3600000",
+                "app.catalog.refresh-interval-ms=3600000",
+                "app.top-items.checkpoint-interval-ms=3600000",
+                "app.order-facts.reload-interval-ms=3600000",
+                "app.settings.refresh-interval-ms=3600000"
+})
+public class OrderFetchPlanTest {
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Autowired
+        private OrderService orderService;
+
+        @Autowired
+        private com.example.order.repository.MenuRepository menuRepository;
+
+        @Autowired
+        private EntityManagerFactory entityManagerFactory;
+
+        @Test
+        @WithMockUser(username = "admin", roles = { "ADMIN", "USER" })
+        public void testListEndpointsUseFixedStatementCount() throws Exception {
+                com.example.order.entity.Menu menu = new com.example.order.entity.Menu();
+                menu.setName("Fetch Soup");
+                menu.setPrice(new java.math.BigDecimal("4.00"));
+                Long menuId = menuRepository.save(menu).getId();
+                createOrders("fetchsmall", 3, menuId);
+                createOrders("fetchlarge", 40, menuId);
+
+                // One query, lines joined in
+                assertEquals(1, statementsFor(get("/orders/my").header("X-User-Id", "fetchsmall")));
+                assertEquals(1, statementsFor(get("/orders/my").header("X-User-Id", "fetchlarge")));
+
+                // Page, count, one batched load of the page's lines
+                assertEquals(3, statementsFor(get("/orders/admin/search")
+                                .param("query", "fetchsmall").param("size", "3")));
+                assertEquals(3, statementsFor(get("/orders/admin/search")
+                                .param("query", "fetchlarge").param("size", "40")));
+
+                // Page (size + 1 rows, no count), one batched load of the lines
+                assertEquals(2, statementsFor(get("/orders/admin/search/cursor")
+                                .param("query", "fetchsmall").param("size", "3")));
+                assertEquals(2, statementsFor(get("/orders/admin/search/cursor")
+                                .param("query", "fetchlarge").param("size", "40")));
+        }
+
+        private long statementsFor(RequestBuilder request) throws Exception {
+                Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+                statistics.clear();
+                mockMvc.perform(request).andExpect(status().isOk()); // Items are serialized, so lazy loads count
+                return statistics.getPrepareStatementCount();
+        }
+
+        private void createOrders(String userId, int count, Long menuId) {
+                OrderItemRequest first = new OrderItemRequest();
+                first.setMenuId(menuId);
+                first.setQuantity(1);
+                OrderItemRequest second = new OrderItemRequest();
+                second.setMenuId(menuId);
+                second.setQuantity(2);
+                CreateOrderRequest request = new CreateOrderRequest();
+                request.setItems(Arrays.asList(first, second));
+                for (int i = 0; i < count; i++) {
+                        orderService.createOrder(userId, request);
+                }
+        }
+}
@@ -0,0 +1,77 @@
+package com.example.order;
+
+import com.example.order.dto.CreateOrderRequest;
+import com.example.order.dto.OrderItemRequest;
+import com.example.order.entity.Order;
+import com.example.order.service.OrderService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@org.springframework.test.context.TestPropertySource(properties = {
+                "app.jwt.secret=very-long-test-secret-key-for-jwt-signing-and-verification-purposes-1234567890",
+                "spring.jpa.hibernate.ddl-auto=create-drop",
+                "app.order-intake.mode=group-commit",
+                "app.order-intake.max-wait-ms=20"
+})
+public class OrderIntakePipelineTest {
+
+        private static final int ORDERS = 100;
+
+        @Autowired
+        private OrderService orderService;
+
+        @Autowired
+        private com.example.order.repository.MenuRepository menuRepository;
+
+        @Autowired
+        private MeterRegistry meterRegistry;
+
+        @Test
+        public void testConcurrentOrdersShareCommits() throws Exception {
+                com.example.order.entity.Menu menu = new com.example.order.entity.Menu();
+                menu.setName("Intake Noodles");
+                menu.setPrice(new java.math.BigDecimal("9.00"));
+                Long menuId = menuRepository.save(menu).getId();
+
+                OrderItemRequest item = new OrderItemRequest();
+                item.setMenuId(menuId);
+                item.setQuantity(1);
+                CreateOrderRequest request = new CreateOrderRequest();
+                request.setItems(Collections.singletonList(item));
+
+                ExecutorService pool = Executors.newFixedThreadPool(32);
+                List<Future<Order>> futures = new ArrayList<>();
+                for (int i = 0; i < ORDERS; i++) {
+                        futures.add(pool.submit(() -> orderService.createOrder("intake-user", request)));
+                }
+                Set<Long> ids = new HashSet<>();
+                for (Future<Order> future : futures) {
+                        Order saved = future.get(1, TimeUnit.MINUTES);
+                        assertNotNull(saved.getId());
+                        ids.add(saved.getId());
+                }
+                pool.shutdown();
+
+                assertEquals(ORDERS, ids.size());
+                DistributionSummary batches = meterRegistry.get("order.intake.batch.size").summary();
+                assertTrue(batches.count() < ORDERS, "expected orders to be grouped into fewer commits");
+        }
+}
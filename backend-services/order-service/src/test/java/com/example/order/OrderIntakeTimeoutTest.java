@@ -0,0 +1,92 @@
+package com.example.order;
+
+import com.example.order.entity.Order;
+import com.example.order.repository.OrderRepository;
+import com.example.order.service.IntakeSaturatedException;
+import com.example.order.service.OrderEventOutbox;
+import com.example.order.service.OrderIntakePipeline;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Submit timeouts in group-commit mode: a 503 must only be returned for an
+ * order that can no longer be committed.
+ */
+public class OrderIntakeTimeoutTest {
+
+        private static final long SUBMIT_TIMEOUT_MS = 50;
+
+        private final OrderRepository orderRepository = mock(OrderRepository.class);
+        private final OrderEventOutbox orderEventOutbox = mock(OrderEventOutbox.class);
+        private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        private final OrderIntakePipeline pipeline = new OrderIntakePipeline(orderRepository, orderEventOutbox,
+                        mock(ApplicationEventPublisher.class), mock(PlatformTransactionManager.class), meterRegistry, "group-commit", 10, 1, 0,
+                        SUBMIT_TIMEOUT_MS, 1);
+
+        private final CountDownLatch writing = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        @AfterEach
+        public void stopWriter() throws InterruptedException {
+                release.countDown();
+                pipeline.stop();
+        }
+
+        @Test
+        public void testQueuedOrderIsWithdrawnBeforeRejecting() throws Exception {
+                Order slow = new Order();
+                Order queued = new Order();
+                when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
+                        if (invocation.getArgument(0) == slow) {
+                                writing.countDown();
+                                release.await();
+                        }
+                        return invocation.getArgument(0);
+                });
+                pipeline.start();
+
+                CompletableFuture<Order> first = CompletableFuture.supplyAsync(() -> pipeline.submit(slow));
+                assertTrue(writing.await(5, TimeUnit.SECONDS));
+
+                // The writer is busy with the first order, so the second is still queued at the timeout
+                assertThrows(IntakeSaturatedException.class, () -> pipeline.submit(queued));
+                assertEquals(0.0, meterRegistry.get("order.intake.queue.depth").gauge().value());
+
+                release.countDown();
+                assertSame(slow, first.get(5, TimeUnit.SECONDS));
+                pipeline.stop();
+                // Withdrawn, so it is never written and a retry cannot produce a duplicate
+                verify(orderRepository, never()).save(queued);
+        }
+
+        @Test
+        public void testOrderAlreadyBeingWrittenIsAwaited() {
+                Order slow = new Order();
+                when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
+                        Thread.sleep(SUBMIT_TIMEOUT_MS * 4);
+                        return invocation.getArgument(0);
+                });
+                pipeline.start();
+
+                // Past the submit timeout, but the commit is in progress: the caller gets its order
+                assertSame(slow, pipeline.submit(slow));
+                assertEquals(0.0, meterRegistry.counter("order.intake.rejected").count());
+        }
+}
@@ -18,6 +18,7 @@ import java.util.Collections;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.hamcrest.Matchers.*;
@@ -233,4 +234,627 @@ public class OrderIntegrationTest {
                                 .andExpect(status().isOk())
                                 .andExpect(jsonPath("$.totalPrice", is(20.0))); // 10.0 + 10.0 = 20.0
         }
+
+        @Test
+        @WithMockUser(username = "admin", roles = { "ADMIN", "USER" })
+        public void testMenuUpdateRepricesNewOrders() throws Exception {
+                Long menuId = createMenu();
+
+                com.example.order.entity.Menu update = new com.example.order.entity.Menu();
+                update.setName("Test Burger");
+                update.setPrice(new java.math.BigDecimal("12.50"));
+                mockMvc.perform(org.springframework.test.web.servlet.request.MockMvcRequestBuilders
+                                .put("/orders/menus/" + menuId)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(update)))
+                                .andExpect(status().isOk());
+
+                CreateOrderRequest request = new CreateOrderRequest();
+                request.setItems(Collections.singletonList(createItemRequest(menuId, 2)));
+
+                mockMvc.perform(post("/orders")
+                                .header("X-User-Id", "123")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request)))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.totalPrice", is(25.0))); // Catalog snapshot rebuilt on write
+        }
+
+        @Test
+        @WithMockUser(username = "admin", roles = { "ADMIN", "USER" })
+        public void testMenuListIsRenderedOnceAndRevalidated() throws Exception {
+                MvcResult first = mockMvc.perform(get("/orders/menus"))
+                                .andExpect(status().isOk())
+                                .andExpect(org.springframework.test.web.servlet.result.MockMvcResultMatchers.header()
+                                                .string("Vary", containsString("Accept-Encoding")))
+                                .andReturn();
+                String etag = first.getResponse().getHeader("ETag");
+                org.junit.jupiter.api.Assertions.assertNotNull(etag);
+                byte[] plain = first.getResponse().getContentAsByteArray();
+
+                mockMvc.perform(get("/orders/menus").header("If-None-Match", etag))
+                                .andExpect(status().isNotModified());
+
+                MvcResult gzipped = mockMvc.perform(get("/orders/menus").header("Accept-Encoding", "gzip, br"))
+                                .andExpect(status().isOk())
+                                .andExpect(org.springframework.test.web.servlet.result.MockMvcResultMatchers.header()
+                                                .string("Content-Encoding", "gzip"))
+                                .andReturn();
+                try (java.util.zip.GZIPInputStream in = new java.util.zip.GZIPInputStream(
+                                new java.io.ByteArrayInputStream(gzipped.getResponse().getContentAsByteArray()))) {
+                        org.junit.jupiter.api.Assertions.assertArrayEquals(plain, in.readAllBytes());
+                }
+
+                // A menu write renders a new body with a new tag
+                com.example.order.entity.Menu menu = new com.example.order.entity.Menu();
+                menu.setName("ETag Dumpling");
+                menu.setPrice(new java.math.BigDecimal("4.00"));
+                mockMvc.perform(post("/orders/menus")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(menu)))
+                                .andExpect(status().isOk());
+                mockMvc.perform(get("/orders/menus").header("If-None-Match", etag))
+                                .andExpect(status().isOk())
+                                .andExpect(org.springframework.test.web.servlet.result.MockMvcResultMatchers.header()
+                                                .string("ETag", not(etag)))
+                                .andExpect(jsonPath("$[*].name", hasItem("ETag Dumpling")));
+        }
+
+        @Test
+        @WithMockUser(username = "admin", roles = { "ADMIN", "USER" })
+        public void testCatalogNestsMenusUnderOrderedCategories() throws Exception {
+                long suffix = System.nanoTime();
+                long drinksId = createCategory("Catalog Drinks " + suffix, 20);
+                long startersId = createCategory("Catalog Starters " + suffix, 10);
+                com.example.order.entity.Menu tea = new com.example.order.entity.Menu();
+                tea.setName("Catalog Tea");
+                tea.setPrice(new java.math.BigDecimal("2.00"));
+                tea.setCategoryId(drinksId);
+                mockMvc.perform(post("/orders/menus")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(tea)))
+                                .andExpect(status().isOk());
+
+                String body = mockMvc.perform(get("/orders/catalog"))
+                                .andExpect(status().isOk())
+                                .andExpect(org.springframework.test.web.servlet.result.MockMvcResultMatchers.header()
+                                                .exists("ETag"))
+                                .andReturn().getResponse().getContentAsString();
+                java.util.List<Long> order = new java.util.ArrayList<>();
+                com.fasterxml.jackson.databind.JsonNode drinks = null;
+                for (com.fasterxml.jackson.databind.JsonNode category : objectMapper.readTree(body).get("categories")) {
+                        order.add(category.get("id").asLong());
+                        if (category.get("id").asLong() == drinksId) {
+                                drinks = category;
+                        }
+                }
+                org.junit.jupiter.api.Assertions.assertTrue(order.indexOf(startersId) < order.indexOf(drinksId));
+                org.junit.jupiter.api.Assertions.assertEquals(1, drinks.get("items").size());
+                org.junit.jupiter.api.Assertions.assertEquals("Catalog Tea", drinks.get("items").get(0).get("name").asText());
+        }
+
+        private long createCategory(String name, int displayOrder) throws Exception {
+                String body = mockMvc.perform(post("/orders/categories")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"name\":\"" + name + "\",\"displayOrder\":" + displayOrder + "}"))
+                                .andExpect(status().isOk())
+                                .andReturn().getResponse().getContentAsString();
+                return objectMapper.readTree(body).get("id").asLong();
+        }
+
+        @Test
+        public void testCreateOrderIdempotencyKeyReplaysResponse() throws Exception {
+                Long menuId = createMenu();
+                CreateOrderRequest request = new CreateOrderRequest();
+                request.setOrderType("DINE_IN");
+                request.setTableNumber("T7");
+                request.setGuestToken(java.util.UUID.randomUUID().toString());
+                request.setItems(Collections.singletonList(createItemRequest(menuId, 1)));
+                String key = java.util.UUID.randomUUID().toString();
+                long before = orderRepository.count();
+
+                MvcResult first = mockMvc.perform(post("/orders")
+                                .header("Idempotency-Key", key)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request)))
+                                .andExpect(status().isOk())
+                                .andReturn();
+                Long orderId = objectMapper.readValue(first.getResponse().getContentAsString(), Order.class).getId();
+
+                // Retry with the same key returns the original order
+                mockMvc.perform(post("/orders")
+                                .header("Idempotency-Key", key)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request)))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.id", is(orderId.intValue())));
+
+                org.junit.jupiter.api.Assertions.assertEquals(before + 1, orderRepository.count());
+        }
+
+        @Test
+        public void testGuestIdempotencyKeysAreScopedByGuestToken() throws Exception {
+                Long menuId = createMenu();
+                CreateOrderRequest request = new CreateOrderRequest();
+                request.setOrderType("DINE_IN");
+                request.setTableNumber("T8");
+                request.setItems(Collections.singletonList(createItemRequest(menuId, 1)));
+                String key = java.util.UUID.randomUUID().toString();
+
+                // Without a guest token there is nothing to scope the key to
+                mockMvc.perform(post("/orders")
+                                .header("Idempotency-Key", key)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request)))
+                                .andExpect(status().isBadRequest());
+
+                request.setGuestToken(java.util.UUID.randomUUID().toString());
+                MvcResult first = mockMvc.perform(post("/orders")
+                                .header("Idempotency-Key", key)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request)))
+                                .andExpect(status().isOk())
+                                .andReturn();
+                Long firstId = objectMapper.readValue(first.getResponse().getContentAsString(), Order.class).getId();
+
+                // Another guest reusing the same key gets an order of their own
+                request.setGuestToken(java.util.UUID.randomUUID().toString());
+                MvcResult second = mockMvc.perform(post("/orders")
+                                .header("Idempotency-Key", key)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request)))
+                                .andExpect(status().isOk())
+                                .andReturn();
+                Long secondId = objectMapper.readValue(second.getResponse().getContentAsString(), Order.class).getId();
+
+                org.junit.jupiter.api.Assertions.assertNotEquals(firstId, secondId);
+        }
+
+        @Test
+        @WithMockUser(username = "admin", roles = { "ADMIN", "USER" })
+        public void testKitchenBoardFollowsStatusChanges() throws Exception {
+                Long menuId = createMenu();
+                CreateOrderRequest request = new CreateOrderRequest();
+                request.setOrderType("DINE_IN");
+                request.setTableNumber("K9");
+                request.setItems(Collections.singletonList(createItemRequest(menuId, 1)));
+
+                MvcResult created = mockMvc.perform(post("/orders")
+                                .header("X-User-Id", "123")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request)))
+                                .andExpect(status().isOk())
+                                .andReturn();
+                Long orderId = objectMapper.readValue(created.getResponse().getContentAsString(), Order.class).getId();
+
+                mockMvc.perform(get("/orders/admin/active").param("table", "K9"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$[*].id", hasItem(orderId.intValue())))
+                                .andExpect(jsonPath("$[0].items", hasSize(1)));
+
+                mockMvc.perform(org.springframework.test.web.servlet.request.MockMvcRequestBuilders
+                                .patch("/orders/admin/" + orderId + "/status")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"status\":\"COMPLETED\"}"))
+                                .andExpect(status().isOk());
+
+                // Finished orders leave the board once the update commits
+                mockMvc.perform(get("/orders/admin/active").param("table", "K9"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$[*].id", not(hasItem(orderId.intValue()))));
+        }
+
+        @Test
+        @WithMockUser(username = "admin", roles = { "ADMIN", "USER" })
+        public void testSearchCursorPagesWithoutGapsOrDuplicates() throws Exception {
+                Long menuId = createMenu();
+                CreateOrderRequest request = new CreateOrderRequest();
+                request.setItems(Collections.singletonList(createItemRequest(menuId, 1)));
+                java.util.Set<Integer> created = new java.util.HashSet<>();
+                for (int i = 0; i < 5; i++) {
+                        MvcResult result = mockMvc.perform(post("/orders")
+                                        .header("X-User-Id", "cursor-user")
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .content(objectMapper.writeValueAsString(request)))
+                                        .andExpect(status().isOk())
+                                        .andReturn();
+                        created.add(objectMapper.readTree(result.getResponse().getContentAsString()).get("id").asInt());
+                }
+
+                java.util.Set<Integer> seen = new java.util.HashSet<>();
+                String cursor = null;
+                int pages = 0;
+                do {
+                        MvcResult result = mockMvc.perform(get("/orders/admin/search/cursor")
+                                        .param("query", "cursor-user")
+                                        .param("size", "2")
+                                        .param("cursor", cursor != null ? cursor : ""))
+                                        .andExpect(status().isOk())
+                                        .andReturn();
+                        com.fasterxml.jackson.databind.JsonNode page = objectMapper
+                                        .readTree(result.getResponse().getContentAsString());
+                        for (com.fasterxml.jackson.databind.JsonNode order : page.get("items")) {
+                                org.junit.jupiter.api.Assertions.assertTrue(seen.add(order.get("id").asInt()));
+                        }
+                        cursor = page.get("hasMore").asBoolean() ? page.get("nextCursor").asText() : null;
+                        pages++;
+                } while (cursor != null);
+
+                org.junit.jupiter.api.Assertions.assertEquals(3, pages);
+                org.junit.jupiter.api.Assertions.assertEquals(created, seen);
+        }
+
+        @Test
+        @WithMockUser(username = "admin", roles = { "ADMIN", "USER" })
+        public void testSearchByExactIdAndRestaurantDay() throws Exception {
+                Long menuId = createMenu();
+                CreateOrderRequest request = new CreateOrderRequest();
+                request.setItems(Collections.singletonList(createItemRequest(menuId, 1)));
+                MvcResult created = mockMvc.perform(post("/orders")
+                                .header("X-User-Id", "search-user")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request)))
+                                .andExpect(status().isOk())
+                                .andReturn();
+                int orderId = objectMapper.readTree(created.getResponse().getContentAsString()).get("id").asInt();
+                // No TIMEZONE setting in the test schema, so the restaurant day is the UTC day
+                String today = java.time.LocalDate.now(java.time.ZoneOffset.UTC).toString();
+                String tomorrow = java.time.LocalDate.now(java.time.ZoneOffset.UTC).plusDays(1).toString();
+
+                mockMvc.perform(get("/orders/admin/search").param("query", String.valueOf(orderId)).param("date", today))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.content[*].id", hasItem(orderId)));
+
+                mockMvc.perform(get("/orders/admin/search").param("query", "SEARCH-US").param("date", today))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.content[*].id", hasItem(orderId)));
+
+                mockMvc.perform(get("/orders/admin/search").param("query", String.valueOf(orderId)).param("date", tomorrow))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.content[*].id", not(hasItem(orderId))));
+        }
+
+        @Test
+        @WithMockUser(username = "customer", roles = "USER")
+        public void testMyActiveOrdersSeeWritesFromOtherReplicas() throws Exception {
+                // Saved straight to the table: no in-process event, as when another replica took the order
+                Order order = new Order();
+                order.setUserId("replica-user");
+                order.setStatus("PREPARING");
+                order.setTotalPrice(new java.math.BigDecimal("12.00"));
+                Long orderId = orderRepository.save(order).getId();
+
+                mockMvc.perform(get("/orders/my/active").header("X-User-Id", "replica-user"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$[*].id", hasItem(orderId.intValue())));
+                mockMvc.perform(get("/orders/my/active").header("X-User-Id", "replica-user").param("view", "summary"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$[0].id", is(orderId.intValue())))
+                                .andExpect(jsonPath("$[0].status", is("PREPARING")));
+        }
+
+        @Test
+        @WithMockUser(username = "customer", roles = "USER")
+        public void testSummaryViewOmitsItemsAndTokens() throws Exception {
+                Long menuId = createMenu();
+                CreateOrderRequest request = new CreateOrderRequest();
+                request.setItems(Collections.singletonList(createItemRequest(menuId, 2)));
+                mockMvc.perform(post("/orders")
+                                .header("X-User-Id", "summary-user")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request)))
+                                .andExpect(status().isOk());
+
+                mockMvc.perform(get("/orders/my").header("X-User-Id", "summary-user").param("view", "summary"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$[0].totalPrice", is(20.0)))
+                                .andExpect(jsonPath("$[0].status", is("PENDING")))
+                                .andExpect(jsonPath("$[0].items").doesNotExist())
+                                .andExpect(jsonPath("$[0].guestToken").doesNotExist());
+
+                mockMvc.perform(get("/orders/my").header("X-User-Id", "summary-user").param("view", "full"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$[0].items", hasSize(1)));
+
+                mockMvc.perform(get("/orders/my").header("X-User-Id", "summary-user").param("view", "tiny"))
+                                .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        @WithMockUser(username = "admin", roles = { "ADMIN", "USER" })
+        public void testRollupsFollowOrdersAndPaymentStatus() throws Exception {
+                java.time.Instant hour = java.time.Instant.now().truncatedTo(java.time.temporal.ChronoUnit.HOURS);
+                java.math.BigDecimal paidBefore = rollupRevenue(hour, "PAID");
+                java.math.BigDecimal unpaidBefore = rollupRevenue(hour, "UNPAID");
+
+                Long menuId = createMenu();
+                CreateOrderRequest request = new CreateOrderRequest();
+                request.setItems(Collections.singletonList(createItemRequest(menuId, 3)));
+                MvcResult created = mockMvc.perform(post("/orders")
+                                .header("X-User-Id", "rollup-user")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request)))
+                                .andExpect(status().isOk())
+                                .andReturn();
+                Long orderId = objectMapper.readTree(created.getResponse().getContentAsString()).get("id").asLong();
+                org.junit.jupiter.api.Assertions.assertEquals(0, unpaidBefore.add(new java.math.BigDecimal("30.00"))
+                                .compareTo(rollupRevenue(hour, "UNPAID")));
+
+                // The order moves between buckets instead of being counted twice
+                orderService.updatePaymentStatus(orderId, com.example.order.entity.PaymentStatus.PAID);
+                org.junit.jupiter.api.Assertions.assertEquals(0, unpaidBefore.compareTo(rollupRevenue(hour, "UNPAID")));
+                org.junit.jupiter.api.Assertions.assertEquals(0, paidBefore.add(new java.math.BigDecimal("30.00"))
+                                .compareTo(rollupRevenue(hour, "PAID")));
+
+                // A rebuild from the orders table agrees with the incremental totals
+                java.math.BigDecimal paidIncremental = rollupRevenue(hour, "PAID");
+                mockMvc.perform(post("/orders/analytics/rollups/rebuild"))
+                                .andExpect(status().isOk());
+                org.junit.jupiter.api.Assertions.assertEquals(0, paidIncremental.compareTo(rollupRevenue(hour, "PAID")));
+        }
+
+        @Test
+        public void testBackfillCountsConcurrentOrdersOnce() throws Exception {
+                Long menuId = createMenu();
+                CreateOrderRequest request = new CreateOrderRequest();
+                request.setItems(Collections.singletonList(createItemRequest(menuId, 1)));
+                java.util.concurrent.ExecutorService writers = java.util.concurrent.Executors.newFixedThreadPool(4);
+                try {
+                        java.util.List<java.util.concurrent.Future<?>> writes = new java.util.ArrayList<>();
+                        for (int i = 0; i < 4; i++) {
+                                writes.add(writers.submit(() -> {
+                                        for (int n = 0; n < 25; n++) {
+                                                orderService.createOrder("backfill-user", request);
+                                        }
+                                }));
+                        }
+                        // Every order written meanwhile is either in a rebuild's snapshot or folded after it
+                        orderRollups.backfill();
+                        orderRollups.backfill();
+                        for (java.util.concurrent.Future<?> write : writes) {
+                                write.get(30, java.util.concurrent.TimeUnit.SECONDS);
+                        }
+                } finally {
+                        writers.shutdownNow();
+                }
+                orderRollups.fold();
+
+                java.util.List<Order> orders = orderRepository.findAll();
+                java.math.BigDecimal revenue = orders.stream().map(Order::getTotalPrice)
+                                .filter(java.util.Objects::nonNull)
+                                .reduce(java.math.BigDecimal.ZERO, java.math.BigDecimal::add);
+                java.util.List<com.example.order.entity.OrderHourlyRollup> hours = rollupRepository.findAll();
+                org.junit.jupiter.api.Assertions.assertEquals(orders.size(), hours.stream()
+                                .mapToLong(com.example.order.entity.OrderHourlyRollup::getOrderCount).sum());
+                org.junit.jupiter.api.Assertions.assertEquals(0, revenue.compareTo(hours.stream()
+                                .map(com.example.order.entity.OrderHourlyRollup::getRevenue)
+                                .reduce(java.math.BigDecimal.ZERO, java.math.BigDecimal::add)));
+                java.util.List<com.example.order.entity.OrderDailyRollup> days = dailyRollupRepository.findAll();
+                org.junit.jupiter.api.Assertions.assertEquals(orders.size(), days.stream()
+                                .mapToLong(com.example.order.entity.OrderDailyRollup::getOrderCount).sum());
+                org.junit.jupiter.api.Assertions.assertEquals(0, revenue.compareTo(days.stream()
+                                .map(com.example.order.entity.OrderDailyRollup::getRevenue)
+                                .reduce(java.math.BigDecimal.ZERO, java.math.BigDecimal::add)));
+        }
+
+        @Autowired
+        private com.example.order.repository.OrderDailyRollupRepository dailyRollupRepository;
+
+        @Autowired
+        private com.example.order.service.OrderService orderService;
+
+        @Autowired
+        private com.example.order.repository.OrderHourlyRollupRepository rollupRepository;
+
+        private java.math.BigDecimal rollupRevenue(java.time.Instant hour, String paymentStatus) {
+                orderRollups.fold();
+                return rollupRepository.findSince(hour).stream()
+                                .filter(r -> r.getId().getBucketHour().equals(hour))
+                                .filter(r -> r.getId().getPaymentStatus().equals(paymentStatus))
+                                .map(com.example.order.entity.OrderHourlyRollup::getRevenue)
+                                .reduce(java.math.BigDecimal.ZERO, java.math.BigDecimal::add);
+        }
+
+        @Test
+        @WithMockUser(username = "admin", roles = { "ADMIN", "USER" })
+        public void testTopItemsWindowCountsNewLines() throws Exception {
+                com.example.order.entity.Menu menu = new com.example.order.entity.Menu();
+                menu.setName("Top Item Ramen");
+                menu.setPrice(new java.math.BigDecimal("9.00"));
+                Long menuId = menuRepository.save(menu).getId();
+
+                CreateOrderRequest request = new CreateOrderRequest();
+                request.setItems(Collections.singletonList(createItemRequest(menuId, 500)));
+                mockMvc.perform(post("/orders")
+                                .header("X-User-Id", "top-item-user")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request)))
+                                .andExpect(status().isOk());
+
+                mockMvc.perform(get("/orders/analytics/top-items").param("window", "today"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$[0].name", is("Top Item Ramen")))
+                                .andExpect(jsonPath("$[0].quantity", is(500)));
+
+                mockMvc.perform(get("/orders/analytics/top-items").param("window", "1y"))
+                                .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        @WithMockUser(username = "admin", roles = { "ADMIN", "USER" })
+        public void testSettingsUpdateIsServedFromRegistry() throws Exception {
+                mockMvc.perform(put("/orders/settings")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"settingKey\":\"TABLE_LIST\",\"settingValue\":\"A1, A2,VIP\"}"))
+                                .andExpect(status().isOk());
+
+                mockMvc.perform(get("/orders/settings/public"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$[?(@.settingKey == 'TABLE_LIST')].settingValue",
+                                                hasItem("A1, A2,VIP")));
+                org.junit.jupiter.api.Assertions.assertEquals(java.util.List.of("A1", "A2", "VIP"),
+                                settingsRegistry.tables());
+
+                mockMvc.perform(put("/orders/settings")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"settingKey\":\"TIMEZONE\",\"settingValue\":\"Mars/Olympus\"}"))
+                                .andExpect(status().isBadRequest());
+        }
+
+        @Autowired
+        private com.example.order.service.RestaurantSettingsRegistry settingsRegistry;
+
+        @Autowired
+        private com.example.order.service.OrderRollups orderRollups;
+
+        @Test
+        @WithMockUser(username = "admin", roles = { "ADMIN", "USER" })
+        public void testTrendsUseRestaurantLocalDays() throws Exception {
+                Long menuId = createMenu();
+                CreateOrderRequest request = new CreateOrderRequest();
+                request.setItems(Collections.singletonList(createItemRequest(menuId, 1)));
+                mockMvc.perform(post("/orders")
+                                .header("X-User-Id", "trend-user")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request)))
+                                .andExpect(status().isOk());
+
+                java.time.ZoneId taipei = java.time.ZoneId.of("Asia/Taipei");
+                try {
+                        // Changing the zone rebuilds the day buckets in the background
+                        mockMvc.perform(put("/orders/settings")
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .content("{\"settingKey\":\"TIMEZONE\",\"settingValue\":\"Asia/Taipei\"}"))
+                                        .andExpect(status().isOk());
+                        // Written while the rebuild may be running: counted exactly once either way
+                        mockMvc.perform(post("/orders")
+                                        .header("X-User-Id", "trend-user")
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .content(objectMapper.writeValueAsString(request)))
+                                        .andExpect(status().isOk());
+                        awaitDayZone(taipei);
+                        orderRollups.fold();
+
+                        java.time.LocalDate taipeiToday = java.time.LocalDate.now(taipei);
+                        long expected = orderRepository.findAll().stream()
+                                        .filter(order -> java.time.LocalDate.ofInstant(order.getCreatedAt(), taipei)
+                                                        .equals(taipeiToday))
+                                        .count();
+                        mockMvc.perform(get("/orders/analytics/trends").param("days", "1"))
+                                        .andExpect(status().isOk())
+                                        .andExpect(jsonPath("$", hasSize(1)))
+                                        .andExpect(jsonPath("$[0].date", is(taipeiToday.toString())))
+                                        .andExpect(jsonPath("$[0].count", is((int) expected)));
+                } finally {
+                        mockMvc.perform(put("/orders/settings")
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .content("{\"settingKey\":\"TIMEZONE\",\"settingValue\":\"UTC\"}"))
+                                        .andExpect(status().isOk());
+                        awaitDayZone(java.time.ZoneId.of("UTC"));
+                }
+
+                mockMvc.perform(get("/orders/analytics/trends").param("days", "366"))
+                                .andExpect(status().isBadRequest());
+        }
+
+        private void awaitDayZone(java.time.ZoneId zone) throws InterruptedException {
+                long deadline = System.currentTimeMillis() + 10_000;
+                while (!orderRollups.dayZone().equals(zone)) {
+                        org.junit.jupiter.api.Assertions.assertTrue(System.currentTimeMillis() < deadline,
+                                        "Daily rollups were not rebuilt for " + zone);
+                        Thread.sleep(20);
+                }
+        }
+
+        @Test
+        @WithMockUser(username = "admin", roles = { "ADMIN", "USER" })
+        public void testExportStreamsOrdersAndLines() throws Exception {
+                Long menuId = createMenu();
+                CreateOrderRequest request = new CreateOrderRequest();
+                request.setItems(java.util.Arrays.asList(createItemRequest(menuId, 1), createItemRequest(menuId, 2)));
+                MvcResult created = mockMvc.perform(post("/orders")
+                                .header("X-User-Id", "=export-user")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request)))
+                                .andExpect(status().isOk())
+                                .andReturn();
+                long orderId = objectMapper.readTree(created.getResponse().getContentAsString()).get("id").asLong();
+                String today = java.time.LocalDate.now(java.time.ZoneOffset.UTC).toString();
+
+                String csv = mockMvc.perform(get("/orders/admin/export").param("from", today).param("to", today))
+                                .andExpect(status().isOk())
+                                .andExpect(org.springframework.test.web.servlet.result.MockMvcResultMatchers.header()
+                                                .string("Content-Type", startsWith("text/csv")))
+                                .andReturn().getResponse().getContentAsString();
+                java.util.List<String> lines = java.util.Arrays.stream(csv.split("\n"))
+                                .filter(line -> line.startsWith(orderId + ","))
+                                .toList();
+                org.junit.jupiter.api.Assertions.assertEquals(2, lines.size());
+                // Formula-looking text is neutralised for spreadsheets
+                org.junit.jupiter.api.Assertions.assertTrue(lines.get(0).contains(",'=export-user,"), lines.get(0));
+
+                String ndjson = mockMvc.perform(get("/orders/admin/export").param("from", today)
+                                .param("format", "ndjson"))
+                                .andExpect(status().isOk())
+                                .andReturn().getResponse().getContentAsString();
+                com.fasterxml.jackson.databind.JsonNode order = null;
+                for (String line : ndjson.split("\n")) {
+                        com.fasterxml.jackson.databind.JsonNode node = objectMapper.readTree(line);
+                        if (node.get("id").asLong() == orderId) {
+                                order = node;
+                        }
+                }
+                org.junit.jupiter.api.Assertions.assertNotNull(order);
+                org.junit.jupiter.api.Assertions.assertEquals(2, order.get("items").size());
+
+                mockMvc.perform(get("/orders/admin/export").param("from", today).param("format", "xlsx"))
+                                .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        @WithMockUser(username = "admin", roles = { "ADMIN", "USER" })
+        public void testSliceGroupsAndFiltersOrders() throws Exception {
+                long ordersBefore = sliceTotal("orders");
+                long itemsBefore = sliceTotal("items");
+
+                Long menuId = createMenu();
+                CreateOrderRequest request = new CreateOrderRequest();
+                request.setOrderType("TAKEOUT");
+                request.setPaymentMethod("CASH");
+                request.setItems(Collections.singletonList(createItemRequest(menuId, 4)));
+                mockMvc.perform(post("/orders")
+                                .header("X-User-Id", "slice-user")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request)))
+                                .andExpect(status().isOk());
+
+                // Committed orders are visible without waiting for a reload
+                org.junit.jupiter.api.Assertions.assertEquals(ordersBefore + 1, sliceTotal("orders"));
+                org.junit.jupiter.api.Assertions.assertEquals(itemsBefore + 4, sliceTotal("items"));
+
+                mockMvc.perform(get("/orders/analytics/slice")
+                                .param("groupBy", "orderType,paymentMethod")
+                                .param("paymentMethod", "CASH"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$[*].key.paymentMethod", everyItem(is("CASH"))))
+                                .andExpect(jsonPath("$[?(@.key.orderType == 'TAKEOUT')].orders",
+                                                hasItem(greaterThanOrEqualTo(1))));
+
+                mockMvc.perform(get("/orders/analytics/slice").param("groupBy", "bogus"))
+                                .andExpect(status().isBadRequest());
+        }
+
+        private long sliceTotal(String field) throws Exception {
+                String today = java.time.LocalDate.now(java.time.ZoneOffset.UTC).toString();
+                String body = mockMvc.perform(get("/orders/analytics/slice")
+                                .param("from", today).param("to", today)
+                                .param("orderType", "TAKEOUT").param("paymentMethod", "CASH"))
+                                .andExpect(status().isOk())
+                                .andReturn().getResponse().getContentAsString();
+                long total = 0;
+                for (com.fasterxml.jackson.databind.JsonNode group : objectMapper.readTree(body)) {
+                        total += group.get(field).asLong();
+                }
+                return total;
+        }
 }
@@ -0,0 +1,324 @@
+package com.example.order;
+
+import com.example.order.repository.OrderRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs every OrderRepository query against a seeded dataset, captures the SQL
+ * Hibernate sends with its bound parameters, and fails if MySQL's EXPLAIN
+ * shows a full table scan (type=ALL).
+ *
+ * A new repository method fails {@link #testEveryRepositoryQueryIsCovered()}
+ * until it is added to {@link #queries()}.
+ */
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@org.springframework.test.context.TestPropertySource(properties = {
+                "app.jwt.secret=very-long-test-secret-key-for-jwt-signing-and-verification-purposes-1234567890",
+                "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+public class OrderQueryPlanTest {
+
+        private static final int SEEDED_ORDERS = 20000;
+        // Far above the id_generator range so seeded rows never collide with generated ids
+        private static final long SEED_ID_BASE = 50_000_000L;
+        // Reads every order by design (GET /orders/admin/all)
+        // streamFactsSince reads the whole retention window, so a table scan is as good as the index
+        private static final Set<String> INTENTIONAL_FULL_SCANS = Set.of("findAll", "findAllSummaries",
+                        "streamFactsSince");
+
+        @Autowired
+        private OrderRepository orderRepository;
+
+        @Autowired
+        private DataSource dataSource;
+
+        @Autowired
+        private PlatformTransactionManager transactionManager;
+
+        private JdbcTemplate jdbcTemplate;
+
+        @BeforeAll
+        public void seed() {
+                jdbcTemplate = new JdbcTemplate(dataSource);
+                String[] statuses = { "COMPLETED", "COMPLETED", "COMPLETED", "COMPLETED", "COMPLETED",
+                                "COMPLETED", "COMPLETED", "COMPLETED", "CANCELLED", "PENDING" };
+                String[] dishes = { "Beef Noodles", "Dumplings", "Fried Rice", "Milk Tea", "Spring Rolls" };
+                Instant now = Instant.now();
+
+                List<Object[]> orders = new ArrayList<>();
+                List<Object[]> items = new ArrayList<>();
+                for (int i = 0; i < SEEDED_ORDERS; i++) {
+                        long id = SEED_ID_BASE + i;
+                        Timestamp createdAt = Timestamp.from(now.minus(i % 365, ChronoUnit.DAYS).minusSeconds(i));
+                        orders.add(new Object[] { id, "user-" + (i % 500), "guest-" + i, new BigDecimal("12.50"),
+                                        statuses[i % statuses.length], "DINE_IN", "CASH", "PAID", "T" + (i % 30),
+                                        createdAt });
+                        items.add(new Object[] { id * 2, id, 1L, dishes[i % dishes.length], new BigDecimal("6.25"), 1 });
+                        items.add(new Object[] { id * 2 + 1, id, 2L, dishes[(i + 1) % dishes.length],
+                                        new BigDecimal("6.25"), 1 });
+                }
+                jdbcTemplate.batchUpdate("INSERT INTO orders (id, user_id, guest_token, total_price, status, order_type, "
+                                + "payment_method, payment_status, table_number, created_at, version) "
+                                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)", orders);
+                jdbcTemplate.batchUpdate("INSERT INTO order_item (id, order_id, menu_id, snapshot_name, snapshot_price, "
+                                + "quantity) VALUES (?, ?, ?, ?, ?, ?)", items);
+                // Fresh statistics, otherwise the optimizer plans against an empty table
+                jdbcTemplate.execute("ANALYZE TABLE orders, order_item");
+        }
+
+        @AfterAll
+        public void cleanUp() {
+                jdbcTemplate.update("DELETE FROM order_item WHERE order_id >= ?", SEED_ID_BASE);
+                jdbcTemplate.update("DELETE FROM orders WHERE id >= ?", SEED_ID_BASE);
+        }
+
+        private Map<String, Runnable> queries() {
+                Instant today = Instant.now().truncatedTo(ChronoUnit.DAYS);
+                List<String> active = List.of("PENDING", "PAID", "PREPARING", "READY");
+                Sort newestFirst = Sort.by(Sort.Direction.DESC, "createdAt");
+
+                Map<String, Runnable> queries = new LinkedHashMap<>();
+                queries.put("findAll", () -> orderRepository.findAll(newestFirst));
+                queries.put("findByUserIdOrderByCreatedAtDesc", () -> orderRepository.findByUserIdOrderByCreatedAtDesc("user-7"));
+                queries.put("findByUserIdAndStatusIn", () -> {
+                        orderRepository.findByUserIdAndStatusIn("user-7", active, newestFirst);
+                        orderRepository.findByUserIdAndStatusIn("user-7", List.of("COMPLETED", "CANCELLED"),
+                                        PageRequest.of(0, 10, newestFirst));
+                });
+                queries.put("findWithItemsByStatusIn", () -> orderRepository.findWithItemsByStatusIn(active));
+                queries.put("countOrdersByStatus", () -> orderRepository.countOrdersByStatus(List.of("PENDING", "PREPARING", "PAID")));
+                queries.put("streamExportRows", () -> {
+                        try (java.util.stream.Stream<Object[]> rows = orderRepository
+                                        .streamExportRows(today.minus(30, ChronoUnit.DAYS), today)) {
+                                rows.forEach(row -> {
+                                });
+                        }
+                });
+                queries.put("streamFactsSince", () -> {
+                        try (java.util.stream.Stream<Object[]> rows = orderRepository
+                                        .streamFactsSince(today.minus(400, ChronoUnit.DAYS))) {
+                                rows.forEach(row -> {
+                                });
+                        }
+                });
+                queries.put("streamItemSalesSince", () -> {
+                        try (java.util.stream.Stream<Object[]> rows = orderRepository
+                                        .streamItemSalesSince(today.minus(29, ChronoUnit.DAYS))) {
+                                rows.forEach(row -> {
+                                });
+                        }
+                });
+                queries.put("findOrders", () -> {
+                        orderRepository.findOrders(List.of("PENDING"), null, null, null, null, PageRequest.of(0, 20, newestFirst));
+                        orderRepository.findOrders(null, today, today.plus(1, ChronoUnit.DAYS), null, null,
+                                        PageRequest.of(0, 20, newestFirst));
+                        orderRepository.findOrders(null, null, null, SEED_ID_BASE + 42, "50000042%",
+                                        PageRequest.of(0, 20, newestFirst));
+                        orderRepository.findOrders(null, null, null, null, "user-4%", PageRequest.of(0, 20, newestFirst));
+                });
+                queries.put("findOrdersAfter", () -> {
+                        orderRepository.findOrdersAfter(null, today, today.plus(1, ChronoUnit.DAYS), null, null,
+                                        null, null, PageRequest.of(0, 21));
+                        orderRepository.findOrdersAfter(List.of("COMPLETED"), null, null, null, null,
+                                        today.minus(200, ChronoUnit.DAYS), SEED_ID_BASE, PageRequest.of(0, 21));
+                });
+                queries.put("findByUserIdAndStatusInAfter", () -> orderRepository.findByUserIdAndStatusInAfter("user-7",
+                                List.of("COMPLETED", "CANCELLED"), today.minus(30, ChronoUnit.DAYS), SEED_ID_BASE,
+                                PageRequest.of(0, 11)));
+                queries.put("findAllSummaries", () -> orderRepository.findAllSummaries(newestFirst));
+                queries.put("findSummariesByUserId", () -> orderRepository.findSummariesByUserId("user-7"));
+                queries.put("findSummariesByUserIdAndStatusIn", () -> {
+                        orderRepository.findSummariesByUserIdAndStatusIn("user-7", active, newestFirst);
+                        orderRepository.findSummariesByUserIdAndStatusIn("user-7", List.of("COMPLETED", "CANCELLED"),
+                                        PageRequest.of(0, 10, newestFirst));
+                });
+                queries.put("findSummariesByUserIdAndStatusInAfter", () -> orderRepository
+                                .findSummariesByUserIdAndStatusInAfter("user-7", List.of("COMPLETED", "CANCELLED"),
+                                                today.minus(30, ChronoUnit.DAYS), SEED_ID_BASE, PageRequest.of(0, 11)));
+                queries.put("findOrderSummaries", () -> orderRepository.findOrderSummaries(null, today,
+                                today.plus(1, ChronoUnit.DAYS), null, null, PageRequest.of(0, 20, newestFirst)));
+                queries.put("findOrderSummariesAfter", () -> orderRepository.findOrderSummariesAfter(null, null, null,
+                                null, "user-4%", today.minus(200, ChronoUnit.DAYS), SEED_ID_BASE, PageRequest.of(0, 21)));
+                queries.put("mergeGuestOrders", () -> orderRepository.mergeGuestOrders("user-merged", "guest-42"));
+                return queries;
+        }
+
+        @Test
+        public void testEveryRepositoryQueryIsCovered() {
+                Set<String> declared = Arrays.stream(OrderRepository.class.getDeclaredMethods())
+                                .map(Method::getName)
+                                .collect(Collectors.toCollection(TreeSet::new));
+                assertEquals(declared, new TreeSet<>(queries().keySet()),
+                                "Add new OrderRepository queries to OrderQueryPlanTest.queries()");
+        }
+
+        @Test
+        public void testNoRepositoryQueryScansWholeTable() {
+                List<String> fullScans = new ArrayList<>();
+                for (Map.Entry<String, Runnable> query : queries().entrySet()) {
+                        if (INTENTIONAL_FULL_SCANS.contains(query.getKey())) {
+                                continue;
+                        }
+                        List<CapturedStatement> statements = capture(query.getValue());
+                        assertFalse(statements.isEmpty(), query.getKey() + " issued no SQL");
+                        for (CapturedStatement statement : statements) {
+                                for (Map<String, Object> row : explain(statement)) {
+                                        // Hibernate aliases tables (o1_0), so any base-table scan counts; <derivedN> is a temp table
+                                        Object table = row.get("table");
+                                        if ("ALL".equals(row.get("type")) && table != null && !table.toString().startsWith("<")) {
+                                                fullScans.add(query.getKey() + ": " + statement.sql() + " -> " + row);
+                                        }
+                                }
+                        }
+                }
+                assertTrue(fullScans.isEmpty(), "Full table scans:\n" + String.join("\n", fullScans));
+        }
+
+        // Runs the query in a transaction that is always rolled back (mergeGuestOrders writes)
+        private List<CapturedStatement> capture(Runnable query) {
+                List<CapturedStatement> statements = new ArrayList<>();
+                TransactionTemplate template = new TransactionTemplate(transactionManager);
+                template.executeWithoutResult(status -> {
+                        CapturingDataSource.start(statements);
+                        try {
+                                query.run();
+                        } finally {
+                                CapturingDataSource.stop();
+                        }
+                        status.setRollbackOnly();
+                });
+                return statements;
+        }
+
+        private List<Map<String, Object>> explain(CapturedStatement statement) {
+                return jdbcTemplate.queryForList("EXPLAIN " + statement.sql(),
+                                statement.parameters().values().toArray());
+        }
+
+        record CapturedStatement(String sql, Map<Integer, Object> parameters) {
+        }
+
+        /**
+         * Wraps the application DataSource so statements prepared on the test
+         * thread are recorded together with their bound parameters.
+         */
+        static class CapturingDataSource extends DelegatingDataSource {
+
+                private static final ThreadLocal<List<CapturedStatement>> CAPTURED = new ThreadLocal<>();
+
+                CapturingDataSource(DataSource target) {
+                        super(target);
+                }
+
+                static void start(List<CapturedStatement> into) {
+                        CAPTURED.set(into);
+                }
+
+                static void stop() {
+                        CAPTURED.remove();
+                }
+
+                @Override
+                public Connection getConnection() throws SQLException {
+                        return capturing(super.getConnection());
+                }
+
+                @Override
+                public Connection getConnection(String username, String password) throws SQLException {
+                        return capturing(super.getConnection(username, password));
+                }
+
+                private static Connection capturing(Connection connection) {
+                        return (Connection) Proxy.newProxyInstance(CapturingDataSource.class.getClassLoader(),
+                                        new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+                                                Object result = invoke(connection, method, args);
+                                                if ("prepareStatement".equals(method.getName())
+                                                                && CAPTURED.get() != null) {
+                                                        return recording((PreparedStatement) result, (String) args[0]);
+                                                }
+                                                return result;
+                                        });
+                }
+
+                private static PreparedStatement recording(PreparedStatement statement, String sql) {
+                        Map<Integer, Object> parameters = new TreeMap<>();
+                        return (PreparedStatement) Proxy.newProxyInstance(CapturingDataSource.class.getClassLoader(),
+                                        new Class<?>[] { PreparedStatement.class }, (proxy, method, args) -> {
+                                                String name = method.getName();
+                                                if (name.startsWith("set") && args != null && args.length >= 2
+                                                                && args[0] instanceof Integer index) {
+                                                        parameters.put(index, name.equals("setNull") ? null : args[1]);
+                                                } else if (name.startsWith("execute") && CAPTURED.get() != null) {
+                                                        CAPTURED.get().add(new CapturedStatement(sql, new TreeMap<>(parameters)));
+                                                }
+                                                return invoke(statement, method, args);
+                                        });
+                }
+
+                private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+                        try {
+                                return method.invoke(target, args);
+                        } catch (InvocationTargetException e) {
+                                throw e.getCause();
+                        }
+                }
+        }
+
+        @TestConfiguration
+        static class CaptureConfig {
+
+                @Bean
+                static BeanPostProcessor capturingDataSourcePostProcessor() {
+                        return new BeanPostProcessor() {
+                                @Override
+                                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                                        if (bean instanceof DataSource dataSource
+                                                        && !(bean instanceof CapturingDataSource)) {
+                                                return new CapturingDataSource(dataSource);
+                                        }
+                                        return bean;
+                                }
+                        };
+                }
+        }
+}
@@ -0,0 +1,151 @@
+package com.example.order;
+
+import com.example.order.entity.OutboxEvent;
+import com.example.order.repository.OutboxEventRepository;
+import com.example.order.service.OutboxRelay;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class OutboxRelayTest {
+
+        private static final long CONFIRM_TIMEOUT_MS = 100;
+
+        private final OutboxEventRepository repository = mock(OutboxEventRepository.class);
+        private final RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+        private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        private final OutboxRelay relay = new OutboxRelay(repository, rabbitTemplate, transactionManager,
+                        meterRegistry, 10, CONFIRM_TIMEOUT_MS, 30000);
+
+        @Test
+        public void testAckedEventsAreDeletedAfterTheClaimCommits() {
+                OutboxEvent first = event(1L);
+                OutboxEvent second = event(2L);
+                when(repository.lockNextBatch(any(), any())).thenReturn(List.of(first, second));
+                confirmWith(new CorrelationData.Confirm(true, null));
+
+                relay.drain();
+
+                verify(repository).deleteAllByIdInBatch(List.of(1L, 2L));
+                verify(repository, never()).release(anyLong(), anyString());
+                assertNotNull(first.getClaimedUntil());
+                assertEquals(2.0, meterRegistry.counter("order.outbox.published").count());
+
+                // Confirms are awaited outside the claiming transaction
+                InOrder order = inOrder(transactionManager, rabbitTemplate);
+                order.verify(transactionManager).commit(any());
+                order.verify(rabbitTemplate, times(2)).send(anyString(), anyString(), any(Message.class),
+                                any(CorrelationData.class));
+                order.verify(transactionManager).commit(any());
+        }
+
+        @Test
+        public void testTypeIdHeaderComesFromTheRecordedPayloadType() {
+                OutboxEvent typed = event(1L);
+                OutboxEvent legacy = event(2L);
+                legacy.setPayloadType(null);
+                when(repository.lockNextBatch(any(), any())).thenReturn(List.of(typed, legacy));
+                confirmWith(new CorrelationData.Confirm(true, null));
+
+                relay.drain();
+
+                ArgumentCaptor<Message> messages = ArgumentCaptor.forClass(Message.class);
+                verify(rabbitTemplate, times(2)).send(anyString(), anyString(), messages.capture(),
+                                any(CorrelationData.class));
+                assertEquals("java.util.HashMap",
+                                messages.getAllValues().get(0).getMessageProperties().getHeader("__TypeId__"));
+                assertNull(messages.getAllValues().get(1).getMessageProperties().getHeader("__TypeId__"));
+        }
+
+        @Test
+        public void testNackedEventsAreReleasedForRetry() {
+                when(repository.lockNextBatch(any(), any())).thenReturn(List.of(event(1L)));
+                confirmWith(new CorrelationData.Confirm(false, "queue full"));
+
+                relay.drain();
+
+                verify(repository).release(1L, "queue full");
+                verify(repository, never()).deleteAllByIdInBatch(any());
+                assertEquals(1.0, meterRegistry.counter("order.outbox.failed").count());
+                assertEquals(0.0, meterRegistry.counter("order.outbox.published").count());
+        }
+
+        @Test
+        public void testUnconfirmedBatchSharesOneDeadline() {
+                List<OutboxEvent> batch = new ArrayList<>();
+                for (long id = 1; id <= 5; id++) {
+                        batch.add(event(id));
+                }
+                when(repository.lockNextBatch(any(), any())).thenReturn(batch);
+                // The broker never confirms
+
+                long start = System.nanoTime();
+                relay.drain();
+                long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+                for (long id = 1; id <= 5; id++) {
+                        verify(repository).release(id, "confirm timeout");
+                }
+                verify(repository, never()).deleteAllByIdInBatch(any());
+                // One timeout per event would take at least 5 x CONFIRM_TIMEOUT_MS
+                assertTrue(elapsedMs < 4 * CONFIRM_TIMEOUT_MS, "Batch took " + elapsedMs + " ms");
+        }
+
+        @Test
+        public void testUnsentEventsAreReleasedWithoutCountingAnAttempt() {
+                when(repository.lockNextBatch(any(), any())).thenReturn(List.of(event(1L), event(2L)));
+                doAnswer(invocation -> {
+                        throw new IllegalStateException("connection refused");
+                }).when(rabbitTemplate).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+
+                relay.drain();
+
+                verify(repository).release(eq(1L), eq("connection refused"));
+                verify(repository).clearClaim(2L);
+                verify(rabbitTemplate, times(1)).send(anyString(), anyString(), any(Message.class),
+                                any(CorrelationData.class));
+        }
+
+        private void confirmWith(CorrelationData.Confirm confirm) {
+                doAnswer(invocation -> {
+                        invocation.getArgument(3, CorrelationData.class).getFuture().complete(confirm);
+                        return null;
+                }).when(rabbitTemplate).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+        }
+
+        private static OutboxEvent event(long id) {
+                OutboxEvent event = new OutboxEvent();
+                event.setId(id);
+                event.setAggregateId(100 + id);
+                event.setExchange("order.events");
+                event.setRoutingKey("order.created");
+                event.setPayload("{\"orderId\":" + (100 + id) + "}");
+                event.setPayloadType("java.util.HashMap");
+                return event;
+        }
+}
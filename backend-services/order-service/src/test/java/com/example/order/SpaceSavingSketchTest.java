@@ -0,0 +1,53 @@
+package com.example.order;
+
+import com.example.order.service.SpaceSavingSketch;
+import com.example.order.service.SpaceSavingSketch.Estimate;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SpaceSavingSketchTest {
+
+        @Test
+        public void testExactWhileUnderCapacity() {
+                SpaceSavingSketch sketch = new SpaceSavingSketch(10);
+                sketch.offer("Dumplings", 3);
+                sketch.offer("Milk Tea", 5);
+                sketch.offer("Dumplings", 4);
+
+                List<Estimate> top = sketch.top(5);
+                assertEquals(new Estimate("Dumplings", 7, 0), top.get(0));
+                assertEquals(new Estimate("Milk Tea", 5, 0), top.get(1));
+        }
+
+        @Test
+        public void testHeavyHittersSurviveEvictionAndMerge() {
+                Random random = new Random(42);
+                SpaceSavingSketch first = new SpaceSavingSketch(20);
+                SpaceSavingSketch second = new SpaceSavingSketch(20);
+                long[] trueCounts = new long[3];
+                for (int i = 0; i < 20000; i++) {
+                        SpaceSavingSketch target = i % 2 == 0 ? first : second;
+                        if (i % 10 < 3) {
+                                // Three best sellers, 30% of the volume between them
+                                trueCounts[i % 3]++;
+                                target.offer("hit-" + (i % 3), 1);
+                        } else {
+                                target.offer("tail-" + random.nextInt(500), 1);
+                        }
+                }
+
+                List<Estimate> top = SpaceSavingSketch.merge(20, List.of(first, second)).top(3);
+                for (Estimate estimate : top) {
+                        assertTrue(estimate.item().startsWith("hit-"), estimate + " outranks a best seller");
+                        long actual = trueCounts[Integer.parseInt(estimate.item().substring(4))];
+                        // Never undercounts, overcounts by at most the reported error
+                        assertTrue(estimate.count() >= actual, estimate + " below " + actual);
+                        assertTrue(estimate.count() - estimate.error() <= actual, estimate + " error bound");
+                }
+        }
+}
@@ -0,0 +1,45 @@
+// Burst load for comparing platform-thread and virtual-thread mode.
+//   k6 run -e BASE_URL=http://localhost:8080 -e TOKEN=<jwt> docs/performance/k6-burst.js
+// Mix: menu reads (guest), active-order polling (user), order creation (guest, dine-in).
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const TOKEN = __ENV.TOKEN || '';
+const USER_ID = __ENV.USER_ID || '0912345678';
+
+export const options = {
+    scenarios: {
+        burst: {
+            executor: 'constant-vus',
+            vus: Number(__ENV.VUS || 2000),
+            duration: __ENV.DURATION || '2m',
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+export default function () {
+    const roll = Math.random();
+    if (roll < 0.6) {
+        const res = http.get(`${BASE_URL}/api/orders/menus`, { tags: { name: 'menus' } });
+        check(res, { 'menus 200': (r) => r.status === 200 });
+    } else if (roll < 0.9) {
+        const res = http.get(`${BASE_URL}/api/orders/my/active`, {
+            headers: { Authorization: `Bearer ${TOKEN}`, 'X-User-Id': USER_ID },
+            tags: { name: 'my-active' },
+        });
+        check(res, { 'active 200': (r) => r.status === 200 });
+    } else {
+        const body = JSON.stringify({
+            orderType: 'DINE_IN',
+            tableNumber: '1',
+            items: [{ menuId: 1, quantity: 1 }, { menuId: 3, quantity: 2 }],
+        });
+        const res = http.post(`${BASE_URL}/api/orders`, body, {
+            headers: { 'Content-Type': 'application/json' },
+            tags: { name: 'create-order' },
+        });
+        check(res, { 'create 200': (r) => r.status === 200 });
+    }
+}